@@ -0,0 +1,185 @@
+package net.revtut.libraries.generic.database;
+
+import net.revtut.libraries.generic.database.pool.PoolSettings;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Database Benchmark.
+ * Measures the statements of the database layer against an embedded database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DatabaseBenchmark {
+
+    /**
+     * Number of rows of the table that is queried
+     */
+    private static final int ROWS = 10000;
+
+    /**
+     * Number of rows inserted per batch
+     */
+    private static final int BATCH_SIZE = 100;
+
+    /**
+     * Columns of the players table
+     */
+    private static final List<String> COLUMNS = Arrays.asList("Id", "Name", "Kills");
+
+    /**
+     * Emulated dialect
+     */
+    @Param({"MYSQL", "POSTGRE"})
+    public EmbeddedDatabase.Mode mode;
+
+    /**
+     * True to use a connection pool, false to use a single connection
+     */
+    @Param({"false", "true"})
+    public boolean pooled;
+
+    /**
+     * Database being measured
+     */
+    private EmbeddedDatabase database;
+
+    /**
+     * Next id to be inserted
+     */
+    private AtomicInteger nextId;
+
+    /**
+     * Rows of a batch insertion, their ids are replaced on each invocation
+     */
+    private List<List<Object>> batch;
+
+    /**
+     * Create the database and fill the queried table
+     * @throws SQLException if the database could not be created
+     * @throws ClassNotFoundException if the driver is missing
+     */
+    @Setup(Level.Trial)
+    public void setup() throws SQLException, ClassNotFoundException {
+        database = EmbeddedDatabase.create("benchmark_" + mode + "_" + pooled, mode);
+        if(pooled)
+            database.setPoolSettings(new PoolSettings(4, 8));
+        database.connect();
+
+        database.executeUpdate("DROP TABLE IF EXISTS Players;", new ArrayList<>());
+        database.executeUpdate("CREATE TABLE Players (Id INT PRIMARY KEY, Name VARCHAR(16), Kills INT);", new ArrayList<>());
+
+        final List<List<Object>> rows = new ArrayList<>(ROWS);
+        for(int id = 0; id < ROWS; id++)
+            rows.add(Arrays.asList(id, "Player" + id, id % 100));
+        DatabaseAPI.executeInsertion(database, "Players", COLUMNS, rows, 1000, true);
+
+        nextId = new AtomicInteger(ROWS);
+        batch = new ArrayList<>(BATCH_SIZE);
+        for(int index = 0; index < BATCH_SIZE; index++)
+            batch.add(new ArrayList<>(Arrays.asList(0, "Batch", 0)));
+    }
+
+    /**
+     * Close the database
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        database.close();
+    }
+
+    /**
+     * Insert a single row
+     * @return number of rows inserted
+     */
+    @Benchmark
+    public int singleInsert() {
+        return DatabaseAPI.executeInsertion(database, "Players", COLUMNS, Collections.singletonList(row(nextId.getAndIncrement())), 1, false)[0];
+    }
+
+    /**
+     * Insert a batch of rows in a single transaction
+     * @return update count of each row
+     */
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public int[] batchInsert() {
+        for(final List<Object> row : batch)
+            row.set(0, nextId.getAndIncrement());
+        return DatabaseAPI.executeInsertion(database, "Players", COLUMNS, batch, BATCH_SIZE, true);
+    }
+
+    /**
+     * Insert a batch of rows in a single multi-row statement
+     * @return number of rows inserted
+     */
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public int multiRowInsert() {
+        for(final List<Object> row : batch)
+            row.set(0, nextId.getAndIncrement());
+        return DatabaseAPI.executeMultiRowInsertion(database, "Players", COLUMNS, batch, BATCH_SIZE);
+    }
+
+    /**
+     * Query a row by its primary key
+     * @return kills of the row
+     * @throws SQLException if the result could not be read
+     */
+    @Benchmark
+    public int queryByKey() throws SQLException {
+        final int id = ThreadLocalRandom.current().nextInt(ROWS);
+        final ResultSet resultSet = DatabaseAPI.executeQuery(database, "Players", Collections.singletonList("Kills"), Collections.singletonList("Id"), Collections.<Object>singletonList(id));
+        return resultSet.next() ? resultSet.getInt(1) : -1;
+    }
+
+    /**
+     * Read the whole table as a stream
+     * @param blackhole consumer of the rows
+     * @throws SQLException if the query could not be executed
+     */
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void streamingRead(final Blackhole blackhole) throws SQLException {
+        try(Stream<String> names = database.executeStream("SELECT Name FROM Players WHERE Id < ?;", Collections.<Object>singletonList(ROWS), row -> row.getString(1))) {
+            names.forEach(blackhole::consume);
+        }
+    }
+
+    /**
+     * Read the whole table detached from the connection, to be compared with the streaming read
+     * @param blackhole consumer of the rows
+     * @throws SQLException if the result could not be read
+     */
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void detachedRead(final Blackhole blackhole) throws SQLException {
+        final ResultSet resultSet = database.executeQuery("SELECT Name FROM Players WHERE Id < ?;", Collections.<Object>singletonList(ROWS));
+        while(resultSet.next())
+            blackhole.consume(resultSet.getString(1));
+    }
+
+    /**
+     * Build the values of a row
+     * @param id id of the row
+     * @return values of the row
+     */
+    private static List<Object> row(final int id) {
+        return Arrays.asList(id, "Player" + id, 0);
+    }
+}
@@ -0,0 +1,69 @@
+package net.revtut.libraries.generic.database;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sql Generation Benchmark.
+ * Compares building the sql of a update on every call with looking up its compiled statement.
+ * Run it with the gc profiler (-prof gc) to see the allocations per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SqlGenerationBenchmark {
+
+    /**
+     * Columns to be updated
+     */
+    private final List<String> columns = Arrays.asList("Name", "Kills", "Deaths", "Wins", "Losses", "Coins", "Experience", "Level");
+
+    /**
+     * Columns of the "Where" condition
+     */
+    private final List<String> where = Arrays.asList("UUID", "Season");
+
+    /**
+     * Build the sql concatenating strings, as it was done before statements were compiled
+     * @return sql of the update
+     */
+    @Benchmark
+    public String concatenated() {
+        String sql = "UPDATE Statistics SET ";
+        int index = 1;
+        for(final String column : columns) {
+            sql += column + " = ?";
+
+            if(index < columns.size())
+                sql += ", ";
+            index++;
+        }
+        sql += " WHERE ";
+
+        index = 1;
+        for(final String column : where) {
+            sql += column + " = ?";
+
+            if(index < where.size())
+                sql += " AND ";
+            index++;
+        }
+        sql += ";";
+        return sql;
+    }
+
+    /**
+     * Look up the compiled statement of the update
+     * @return compiled update
+     */
+    @Benchmark
+    public CompiledStatement compiled() {
+        return DatabaseAPI.compileUpdate("Statistics", columns, where);
+    }
+}
@@ -0,0 +1,350 @@
+package net.revtut.libraries.generic.database;
+
+import net.revtut.libraries.Libraries;
+import net.revtut.libraries.generic.database.utils.TransactionTask;
+import org.bukkit.Bukkit;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Asynchronous Database.
+ * Runs the statements of a database on a bounded pool of worker threads so they never block the server thread.
+ */
+public class AsyncDatabase {
+
+    /**
+     * Default maximum number of queued statements
+     */
+    public static final int DEFAULT_QUEUE_CAPACITY = 1024;
+
+    /**
+     * Database where the statements are executed
+     */
+    private final Database database;
+
+    /**
+     * Workers that execute the statements
+     */
+    private final ThreadPoolExecutor executor;
+
+    /**
+     * Executor that runs tasks on the server thread
+     */
+    private final Executor mainThreadExecutor;
+
+    /**
+     * Number of submitted, completed and rejected statements
+     */
+    private final AtomicLong submittedTasks, completedTasks, rejectedTasks;
+
+    /**
+     * Accumulated and maximum time (in nanoseconds) statements waited on the queue
+     */
+    private final AtomicLong queueTime, maxQueueTime;
+
+    /**
+     * Accumulated and maximum time (in nanoseconds) from submission to completion
+     */
+    private final AtomicLong latency, maxLatency;
+
+    /**
+     * Constructor of AsyncDatabase with one worker per pooled connection
+     * @param database database where the statements are executed
+     */
+    public AsyncDatabase(final Database database) {
+        this(database, database.isPooled() ? database.getPoolSettings().getMaxSize() : 1, DEFAULT_QUEUE_CAPACITY);
+    }
+
+    /**
+     * Constructor of AsyncDatabase
+     * @param database database where the statements are executed
+     * @param threads number of worker threads
+     * @param queueCapacity maximum number of queued statements
+     */
+    public AsyncDatabase(final Database database, final int threads, final int queueCapacity) {
+        this.database = database;
+        this.submittedTasks = new AtomicLong();
+        this.completedTasks = new AtomicLong();
+        this.rejectedTasks = new AtomicLong();
+        this.queueTime = new AtomicLong();
+        this.maxQueueTime = new AtomicLong();
+        this.latency = new AtomicLong();
+        this.maxLatency = new AtomicLong();
+
+        final AtomicInteger threadId = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+            final Thread thread = new Thread(runnable, "Database Worker #" + threadId.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }, this::onQueueFull);
+
+        this.mainThreadExecutor = runnable -> {
+            if(Bukkit.isPrimaryThread())
+                runnable.run();
+            else
+                Bukkit.getScheduler().runTask(Libraries.getInstance(), runnable);
+        };
+    }
+
+    /**
+     * Get the database where the statements are executed
+     * @return database where the statements are executed
+     */
+    public Database getDatabase() {
+        return database;
+    }
+
+    /**
+     * Get the executor that runs tasks on the server thread, to be used with the async methods of the futures
+     * @return executor that runs tasks on the server thread
+     */
+    public Executor getMainThreadExecutor() {
+        return mainThreadExecutor;
+    }
+
+    /**
+     * Query the database asynchronously
+     * @param sql sql query
+     * @param parameters parameters of the prepared statement
+     * @return future result of the given query, failed if the query failed
+     */
+    public CompletableFuture<ResultSet> executeQuery(final String sql, final List<Object> parameters) {
+        return submit(target -> {
+            try {
+                return target.query(sql, parameters);
+            } catch (final SQLException e) {
+                throw new CompletionException(e);
+            }
+        });
+    }
+
+    /**
+     * Update the database asynchronously
+     * @param sql sql statement
+     * @param parameters parameters of the prepared statement
+     * @return future number of rows updated, failed if the statement failed
+     */
+    public CompletableFuture<Integer> executeUpdate(final String sql, final List<Object> parameters) {
+        return submit(target -> {
+            try {
+                return target.update(sql, parameters);
+            } catch (final SQLException e) {
+                throw new CompletionException(e);
+            }
+        });
+    }
+
+    /**
+     * Update the database in batches asynchronously
+     * @param sql sql statement
+     * @param rows parameters of the prepared statement for each row
+     * @param batchSize maximum number of rows per chunk
+     * @param transactional true to commit each chunk as a single transaction
+     * @return future update count of each row
+     */
+    public CompletableFuture<int[]> executeBatch(final String sql, final List<List<Object>> rows, final int batchSize, final boolean transactional) {
+        return submit(target -> target.executeBatch(sql, rows, batchSize, transactional));
+    }
+
+    /**
+     * Run a unit of work inside a transaction asynchronously
+     * @param task work to be run, it may be run again if the transaction is retried
+     * @param <T> type of the result
+     * @return future result of the work
+     */
+    public <T> CompletableFuture<T> transaction(final TransactionTask<T> task) {
+        return submit(target -> {
+            try {
+                return target.transaction(task);
+            } catch (final SQLException e) {
+                throw new CompletionException(e);
+            }
+        });
+    }
+
+    /**
+     * Run a task against the database asynchronously, such as a {@link DatabaseAPI} method.
+     * When the queue is full the future fails right away on the server thread, other threads wait for room.
+     * @param task task to be run
+     * @param <T> type of the result
+     * @return future result of the task
+     */
+    public <T> CompletableFuture<T> submit(final Function<Database, T> task) {
+        final CompletableFuture<T> future = new CompletableFuture<>();
+        final long submitted = System.nanoTime();
+        submittedTasks.incrementAndGet();
+
+        try {
+            executor.execute(() -> {
+                final long started = System.nanoTime();
+                record(queueTime, maxQueueTime, started - submitted);
+                try {
+                    future.complete(task.apply(database));
+                } catch (final Throwable throwable) {
+                    future.completeExceptionally(throwable);
+                } finally {
+                    completedTasks.incrementAndGet();
+                    record(latency, maxLatency, System.nanoTime() - submitted);
+                }
+            });
+        } catch (final RejectedExecutionException e) {
+            rejectedTasks.incrementAndGet();
+            future.completeExceptionally(e);
+        }
+
+        return future;
+    }
+
+    /**
+     * Get a future that is completed on the server thread once the given one completes
+     * @param future future to be completed on the server thread
+     * @param <T> type of the result
+     * @return future completed on the server thread
+     */
+    public <T> CompletableFuture<T> toMainThread(final CompletableFuture<T> future) {
+        final CompletableFuture<T> mainThreadFuture = new CompletableFuture<>();
+        future.whenComplete((result, throwable) -> mainThreadExecutor.execute(() -> {
+            if(throwable != null)
+                mainThreadFuture.completeExceptionally(throwable);
+            else
+                mainThreadFuture.complete(result);
+        }));
+        return mainThreadFuture;
+    }
+
+    /**
+     * Stop accepting statements and wait for the queued ones to finish
+     * @param timeout maximum time (in milliseconds) to wait
+     * @return true if all the statements finished, false otherwise
+     */
+    public boolean close(final long timeout) {
+        executor.shutdown();
+        try {
+            return executor.awaitTermination(timeout, TimeUnit.MILLISECONDS);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Get the number of statements waiting on the queue
+     * @return number of queued statements
+     */
+    public int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+
+    /**
+     * Get the number of statements being executed
+     * @return number of statements being executed
+     */
+    public int getActiveTasks() {
+        return executor.getActiveCount();
+    }
+
+    /**
+     * Get the number of submitted statements
+     * @return number of submitted statements
+     */
+    public long getSubmittedTasks() {
+        return submittedTasks.get();
+    }
+
+    /**
+     * Get the number of completed statements
+     * @return number of completed statements
+     */
+    public long getCompletedTasks() {
+        return completedTasks.get();
+    }
+
+    /**
+     * Get the number of statements rejected because the queue was full
+     * @return number of rejected statements
+     */
+    public long getRejectedTasks() {
+        return rejectedTasks.get();
+    }
+
+    /**
+     * Get the average time (in milliseconds) statements waited on the queue
+     * @return average queue time in milliseconds
+     */
+    public double getAverageQueueTime() {
+        return average(queueTime);
+    }
+
+    /**
+     * Get the maximum time (in milliseconds) a statement waited on the queue
+     * @return maximum queue time in milliseconds
+     */
+    public double getMaxQueueTime() {
+        return maxQueueTime.get() / 1000000D;
+    }
+
+    /**
+     * Get the average time (in milliseconds) from submission to completion
+     * @return average latency in milliseconds
+     */
+    public double getAverageLatency() {
+        return average(latency);
+    }
+
+    /**
+     * Get the maximum time (in milliseconds) from submission to completion
+     * @return maximum latency in milliseconds
+     */
+    public double getMaxLatency() {
+        return maxLatency.get() / 1000000D;
+    }
+
+    /**
+     * Handle a statement that does not fit on the queue.
+     * The server thread must never block, so it is rejected there. Other threads wait for room.
+     * @param runnable statement that was rejected
+     * @param threadPoolExecutor executor that rejected the statement
+     */
+    private void onQueueFull(final Runnable runnable, final ThreadPoolExecutor threadPoolExecutor) {
+        if(threadPoolExecutor.isShutdown())
+            throw new RejectedExecutionException("Asynchronous database was closed.");
+        if(Bukkit.isPrimaryThread())
+            throw new RejectedExecutionException("Database queue is full (" + threadPoolExecutor.getQueue().size() + " statements).");
+
+        try {
+            threadPoolExecutor.getQueue().put(runnable);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("Interrupted while waiting for room on the database queue.", e);
+        }
+    }
+
+    /**
+     * Record a time measure
+     * @param total accumulated time
+     * @param max maximum time
+     * @param value time to be recorded
+     */
+    private static void record(final AtomicLong total, final AtomicLong max, final long value) {
+        total.addAndGet(value);
+        max.accumulateAndGet(value, Math::max);
+    }
+
+    /**
+     * Get the average (in milliseconds) of a accumulated time over the completed statements
+     * @param total accumulated time
+     * @return average in milliseconds
+     */
+    private double average(final AtomicLong total) {
+        final long count = completedTasks.get();
+        if(count == 0)
+            return 0;
+        return total.get() / (double) count / 1000000D;
+    }
+}
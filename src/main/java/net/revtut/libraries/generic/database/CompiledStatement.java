@@ -0,0 +1,121 @@
+package net.revtut.libraries.generic.database;
+
+import net.revtut.libraries.generic.database.utils.RowMapper;
+import net.revtut.libraries.generic.database.utils.Statements;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Compiled Statement.
+ * SQL generated once for a table and column shape, reused with only parameter binding afterwards.
+ */
+public class CompiledStatement {
+
+    /**
+     * Type of the statement
+     */
+    private final Statements type;
+
+    /**
+     * SQL of the statement
+     */
+    private final String sql;
+
+    /**
+     * Number of parameters of the statement
+     */
+    private final int parameterCount;
+
+    /**
+     * Constructor of CompiledStatement
+     * @param type type of the statement
+     * @param sql sql of the statement
+     * @param parameterCount number of parameters of the statement
+     */
+    public CompiledStatement(final Statements type, final String sql, final int parameterCount) {
+        this.type = type;
+        this.sql = sql;
+        this.parameterCount = parameterCount;
+    }
+
+    /**
+     * Get the type of the statement
+     * @return type of the statement
+     */
+    public Statements getType() {
+        return type;
+    }
+
+    /**
+     * Get the sql of the statement
+     * @return sql of the statement
+     */
+    public String getSql() {
+        return sql;
+    }
+
+    /**
+     * Get the number of parameters of the statement
+     * @return number of parameters
+     */
+    public int getParameterCount() {
+        return parameterCount;
+    }
+
+    /**
+     * Query a database with the statement
+     * @param database database to be queried
+     * @param parameters parameters of the statement
+     * @return result of the query
+     */
+    public ResultSet executeQuery(final Database database, final List<Object> parameters) {
+        return database.executeQuery(sql, parameters);
+    }
+
+    /**
+     * Query a database with the statement streaming the rows, to be used in a try-with-resources
+     * @param database database to be queried
+     * @param parameters parameters of the statement
+     * @param mapper mapper of each row
+     * @param <T> type of the mapped rows
+     * @return lazily consumed stream of the mapped rows
+     * @throws SQLException if the query could not be executed
+     */
+    public <T> Stream<T> executeStream(final Database database, final List<Object> parameters, final RowMapper<T> mapper) throws SQLException {
+        return database.executeStream(sql, parameters, mapper);
+    }
+
+    /**
+     * Update a database with the statement
+     * @param database database to be updated
+     * @param parameters parameters of the statement
+     * @return number of rows updated
+     */
+    public int executeUpdate(final Database database, final List<Object> parameters) {
+        return database.executeUpdate(sql, parameters);
+    }
+
+    /**
+     * Update a database with the statement in batches
+     * @param database database to be updated
+     * @param rows parameters of the statement for each row
+     * @param batchSize maximum number of rows sent per batch
+     * @param transactional true to commit each batch as a single transaction
+     * @return update count of each row
+     */
+    public int[] executeBatch(final Database database, final List<List<Object>> rows, final int batchSize, final boolean transactional) {
+        return database.executeBatch(sql, rows, batchSize, transactional);
+    }
+
+    /**
+     * Convert the statement to a string
+     * @return sql of the statement
+     */
+    @Override
+    public String toString() {
+        return sql;
+    }
+}
@@ -1,19 +1,67 @@
 package net.revtut.libraries.generic.database;
 
 
+import net.revtut.libraries.generic.database.pool.ConnectionPool;
+import net.revtut.libraries.generic.database.pool.PoolSettings;
+import net.revtut.libraries.generic.database.pool.PooledConnection;
+import net.revtut.libraries.generic.database.pool.StatementCache;
 import net.revtut.libraries.generic.database.types.DatabaseType;
 import net.revtut.libraries.generic.database.types.MySQL;
 import net.revtut.libraries.generic.database.types.OracleSQL;
 import net.revtut.libraries.generic.database.types.PostgreSQL;
+import net.revtut.libraries.generic.database.utils.ResultSetIterator;
+import net.revtut.libraries.generic.database.utils.RowMapper;
+import net.revtut.libraries.generic.database.utils.TransactionTask;
 
+import javax.sql.rowset.CachedRowSet;
+import javax.sql.rowset.RowSetFactory;
+import javax.sql.rowset.RowSetProvider;
 import java.sql.*;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Database Object.
  */
 public abstract class Database {
 
+    /**
+     * Default maximum number of cached prepared statements per connection
+     */
+    public static final int DEFAULT_STATEMENT_CACHE_SIZE = 64;
+
+    /**
+     * Default number of rows fetched per round-trip when streaming
+     */
+    public static final int DEFAULT_FETCH_SIZE = 1000;
+
+    /**
+     * Default number of times a transaction is retried after a deadlock or serialization failure
+     */
+    public static final int DEFAULT_TRANSACTION_RETRIES = 3;
+
+    /**
+     * Isolation level that keeps the one configured on the connection
+     */
+    public static final int DEFAULT_ISOLATION = -1;
+
+    /**
+     * Base delay (in milliseconds) before retrying a transaction, doubled on each attempt
+     */
+    private static final long RETRY_BACKOFF = 10;
+
+    /**
+     * Factory of detached result sets
+     */
+    private static RowSetFactory rowSetFactory;
+
     /**
      * Database driver
      */
@@ -39,6 +87,51 @@ public abstract class Database {
      */
     private Connection connection;
 
+    /**
+     * Handle of the single database connection
+     */
+    private PooledConnection connectionHandle;
+
+    /**
+     * Settings of the connection pool, null when not pooled
+     */
+    private PoolSettings poolSettings;
+
+    /**
+     * Connection pool of the database
+     */
+    private ConnectionPool pool;
+
+    /**
+     * Maximum number of cached prepared statements per connection
+     */
+    private int statementCacheSize;
+
+    /**
+     * Prepared statement cache hits and misses
+     */
+    private final AtomicLong statementCacheHits, statementCacheMisses;
+
+    /**
+     * Number of rows fetched per round-trip when streaming
+     */
+    private int fetchSize;
+
+    /**
+     * Maximum number of times a transaction is retried
+     */
+    private int maxTransactionRetries;
+
+    /**
+     * Transaction running on each thread
+     */
+    private final ThreadLocal<Transaction> currentTransaction;
+
+    /**
+     * Number of committed, rolled back and retried transactions
+     */
+    private final AtomicLong transactionCommits, transactionRollbacks, transactionRetries;
+
     /**
      * Constructor of Database
      *
@@ -52,6 +145,15 @@ public abstract class Database {
         this.url = url;
         this.username = username;
         this.password = password;
+        this.statementCacheSize = DEFAULT_STATEMENT_CACHE_SIZE;
+        this.statementCacheHits = new AtomicLong();
+        this.statementCacheMisses = new AtomicLong();
+        this.fetchSize = DEFAULT_FETCH_SIZE;
+        this.maxTransactionRetries = DEFAULT_TRANSACTION_RETRIES;
+        this.currentTransaction = new ThreadLocal<>();
+        this.transactionCommits = new AtomicLong();
+        this.transactionRollbacks = new AtomicLong();
+        this.transactionRetries = new AtomicLong();
     }
 
     /**
@@ -73,31 +175,193 @@ public abstract class Database {
         }
     }
 
+    /**
+     * Create a pooled database
+     *
+     * @param type type of the database
+     * @param poolSettings settings of the connection pool
+     * @return created database
+     */
+    public static Database createDatabase(final DatabaseType type, final String hostname, final int port, final String database, final String username, final String password, final PoolSettings poolSettings) {
+        final Database created = createDatabase(type, hostname, port, database, username, password);
+        if(created != null)
+            created.setPoolSettings(poolSettings);
+        return created;
+    }
+
     /**
      * Get the connection to a database
      *
-     * @return connection to database
+     * @return connection to database, null when the database is pooled
      */
     public Connection getConnection() {
         return this.connection;
     }
 
+    /**
+     * Get the connection pool of the database
+     *
+     * @return connection pool, null when the database is not pooled or not connected
+     */
+    public ConnectionPool getPool() {
+        return pool;
+    }
+
+    /**
+     * Check if the database uses a connection pool
+     *
+     * @return true if pooled, false otherwise
+     */
+    public boolean isPooled() {
+        return poolSettings != null;
+    }
+
+    /**
+     * Get the settings of the connection pool
+     *
+     * @return settings of the connection pool, null when the database uses a single connection
+     */
+    public PoolSettings getPoolSettings() {
+        return poolSettings;
+    }
+
+    /**
+     * Set the settings of the connection pool. Must be set before connecting.
+     *
+     * @param poolSettings settings of the connection pool, null to use a single connection
+     */
+    public void setPoolSettings(final PoolSettings poolSettings) {
+        if(pool != null && !pool.isClosed())
+            throw new IllegalStateException("Pool settings can't be changed while the database is connected.");
+        this.poolSettings = poolSettings;
+    }
+
+    /**
+     * Get the maximum number of cached prepared statements per connection
+     *
+     * @return maximum number of cached prepared statements per connection
+     */
+    public int getStatementCacheSize() {
+        return statementCacheSize;
+    }
+
+    /**
+     * Set the maximum number of cached prepared statements per connection. Must be set before connecting.
+     *
+     * @param statementCacheSize maximum number of cached prepared statements, 0 to disable the cache
+     */
+    public void setStatementCacheSize(final int statementCacheSize) {
+        this.statementCacheSize = statementCacheSize;
+    }
+
+    /**
+     * Get the number of statements that were reused from the cache
+     *
+     * @return number of statement cache hits
+     */
+    public long getStatementCacheHits() {
+        return statementCacheHits.get();
+    }
+
+    /**
+     * Get the number of statements that had to be prepared
+     *
+     * @return number of statement cache misses
+     */
+    public long getStatementCacheMisses() {
+        return statementCacheMisses.get();
+    }
+
+    /**
+     * Get the number of rows fetched per round-trip when streaming
+     *
+     * @return number of rows fetched per round-trip
+     */
+    public int getFetchSize() {
+        return fetchSize;
+    }
+
+    /**
+     * Set the number of rows fetched per round-trip when streaming
+     *
+     * @param fetchSize number of rows fetched per round-trip
+     */
+    public void setFetchSize(final int fetchSize) {
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * Get the maximum number of times a transaction is retried
+     *
+     * @return maximum number of retries
+     */
+    public int getMaxTransactionRetries() {
+        return maxTransactionRetries;
+    }
+
+    /**
+     * Set the maximum number of times a transaction is retried after a deadlock or serialization failure
+     *
+     * @param maxTransactionRetries maximum number of retries
+     */
+    public void setMaxTransactionRetries(final int maxTransactionRetries) {
+        this.maxTransactionRetries = maxTransactionRetries;
+    }
+
+    /**
+     * Get the number of committed transactions
+     *
+     * @return number of committed transactions
+     */
+    public long getTransactionCommits() {
+        return transactionCommits.get();
+    }
+
+    /**
+     * Get the number of rolled back transactions, including the attempts that were retried
+     *
+     * @return number of rolled back transactions
+     */
+    public long getTransactionRollbacks() {
+        return transactionRollbacks.get();
+    }
+
+    /**
+     * Get the number of times a transaction was retried
+     *
+     * @return number of retries
+     */
+    public long getTransactionRetries() {
+        return transactionRetries.get();
+    }
+
     /**
      * Connect to the database
      */
     public void connect() throws SQLException, ClassNotFoundException {
-        if (connection != null && !connection.isClosed())
+        if (!isClosed())
             return;
 
         Class.forName(driver);
+        if (isPooled()) {
+            pool = new ConnectionPool(url, username, password, poolSettings, statementCacheSize);
+            return;
+        }
+
         connection = DriverManager.getConnection(url, username, password);
+        connectionHandle = new PooledConnection(connection, statementCacheSize);
     }
 
     /**
      * Close the connection to the database
      */
     public void close() {
+        if (pool != null)
+            pool.close();
+
         try {
+            if (connectionHandle != null)
+                connectionHandle.getStatementCache().clear();
             if (connection != null)
                 connection.close();
         } catch (final SQLException e) {
@@ -106,7 +370,7 @@ public abstract class Database {
     }
 
     /**
-     * Rollback any active transaction on the database
+     * Rollback any active transaction on the single connection of the database
      */
     public void rollback() {
         try {
@@ -123,6 +387,9 @@ public abstract class Database {
      * @return true if closed, false otherwise
      */
     public boolean isClosed() {
+        if (isPooled())
+            return pool == null || pool.isClosed();
+
         try {
             if (connection != null)
                 return connection.isClosed();
@@ -161,28 +428,172 @@ public abstract class Database {
     }
 
     /**
-     * Query Database
+     * Borrow a connection to run a statement. It must be given back using {@link #releaseConnection(PooledConnection)}
+     * and its use must be synchronized on it, as the single connection is shared between threads.
+     *
+     * @return borrowed connection
+     * @throws SQLException if no connection is available
+     */
+    protected PooledConnection borrowConnection() throws SQLException {
+        if (isPooled()) {
+            if (pool == null)
+                throw new SQLException("Database is not connected.");
+            return pool.borrow();
+        }
+
+        // Reconnect the single connection if it was dropped
+        if (connection == null)
+            throw new SQLException("Database is not connected.");
+        synchronized (this) {
+            if (connection.isClosed()) {
+                connection = DriverManager.getConnection(url, username, password);
+                connectionHandle = new PooledConnection(connection, statementCacheSize);
+            }
+            return connectionHandle;
+        }
+    }
+
+    /**
+     * Give back a connection borrowed using {@link #borrowConnection()}
+     *
+     * @param pooledConnection connection to be released
+     */
+    protected void releaseConnection(final PooledConnection pooledConnection) {
+        if (pool != null && pooledConnection != connectionHandle)
+            pool.release(pooledConnection);
+    }
+
+    /**
+     * Get a prepared statement from the connection cache, or prepare it, and bind its parameters
+     *
+     * @param pooledConnection connection of the statement
+     * @param sql              sql statement
+     * @param parameters       parameters of the prepared statement
+     * @return prepared statement ready to be executed
+     * @throws SQLException if the statement could not be prepared
+     */
+    protected PreparedStatement prepareStatement(final PooledConnection pooledConnection, final String sql, final List<Object> parameters) throws SQLException {
+        final StatementCache statementCache = pooledConnection.getStatementCache();
+        PreparedStatement preparedStatement = statementCache.get(sql);
+        if (preparedStatement == null || preparedStatement.isClosed()) {
+            statementCacheMisses.incrementAndGet();
+            preparedStatement = pooledConnection.getConnection().prepareStatement(sql);
+            statementCache.put(sql, preparedStatement);
+        } else {
+            statementCacheHits.incrementAndGet();
+        }
+
+        setParameters(preparedStatement, parameters);
+        return preparedStatement;
+    }
+
+    /**
+     * Bind the parameters of a prepared statement
+     *
+     * @param preparedStatement statement to bind the parameters
+     * @param parameters        parameters of the prepared statement
+     * @throws SQLException if a parameter could not be bound
+     */
+    protected void setParameters(final PreparedStatement preparedStatement, final List<Object> parameters) throws SQLException {
+        int index = 0;
+        for (final Object parameter : parameters)
+            preparedStatement.setObject(++index, parameter);
+    }
+
+    /**
+     * Release a statement obtained using {@link #prepareStatement(PooledConnection, String, List)}
+     *
+     * @param pooledConnection  connection of the statement
+     * @param preparedStatement statement to be released
+     */
+    protected void releaseStatement(final PooledConnection pooledConnection, final PreparedStatement preparedStatement) {
+        if (!pooledConnection.getStatementCache().isEnabled())
+            close(preparedStatement);
+    }
+
+    /**
+     * Query Database.
+     * With a pool the result is copied in memory and detached from the connection, which is released right away.
+     * With a single connection the result is the cursor of the driver, whose statement is closed with it.
+     * Large reads should use {@link #executeStream(String, List, RowMapper)} instead.
      *
      * @param sql        sql query
      * @param parameters parameters of the prepared statement
-     * @return result of the given query
+     * @return result of the given query, null if it failed
      */
     public ResultSet executeQuery(final String sql, final List<Object> parameters) {
-        ResultSet resultSet = null;
-        PreparedStatement preparedStatement;
         try {
-            preparedStatement = connection.prepareStatement(sql);
-
-            int index = 0;
-            for (final Object parameter : parameters)
-                preparedStatement.setObject(++index, parameter);
-
-            resultSet = preparedStatement.executeQuery();
+            return query(sql, parameters);
         } catch (final SQLException e) {
             e.printStackTrace();
+            return null;
         }
+    }
+
+    /**
+     * Query Database throwing the failures instead of returning null.
+     * With a pool the result is copied in memory and detached from the connection, which is released right away.
+     * With a single connection the result is the cursor of the driver, whose statement is closed with it.
+     * Large reads should use {@link #executeStream(String, List, RowMapper)} instead.
+     * Inside a transaction of the same thread the query runs on the connection of that transaction.
+     *
+     * @param sql        sql query
+     * @param parameters parameters of the prepared statement
+     * @return result of the given query
+     * @throws SQLException if the query failed
+     */
+    public ResultSet query(final String sql, final List<Object> parameters) throws SQLException {
+        final Transaction transaction = currentTransaction.get();
+        if (transaction != null)
+            return transaction.executeQuery(sql, parameters);
+
+        final PooledConnection pooledConnection = borrowConnection();
+        if (!isPooled())
+            return queryCursor(pooledConnection, sql, parameters);
 
-        return resultSet;
+        synchronized (pooledConnection) {
+            PreparedStatement preparedStatement = null;
+            try {
+                preparedStatement = prepareStatement(pooledConnection, sql, parameters);
+
+                // Copy the result so the statement and connection can be reused
+                final ResultSet liveResultSet = preparedStatement.executeQuery();
+                final CachedRowSet cachedRowSet = getRowSetFactory().createCachedRowSet();
+                cachedRowSet.populate(liveResultSet);
+                close(liveResultSet);
+                return cachedRowSet;
+            } catch (final SQLException e) {
+                pooledConnection.getStatementCache().invalidate(sql);
+                throw e;
+            } finally {
+                releaseStatement(pooledConnection, preparedStatement);
+                releaseConnection(pooledConnection);
+            }
+        }
+    }
+
+    /**
+     * Query the single connection returning the cursor of the driver. The statement is not cached, as executing
+     * it again would close the cursor, and the driver closes it once the cursor is closed.
+     *
+     * @param pooledConnection single connection of the database
+     * @param sql              sql query
+     * @param parameters       parameters of the prepared statement
+     * @return cursor of the given query
+     * @throws SQLException if the query failed
+     */
+    private ResultSet queryCursor(final PooledConnection pooledConnection, final String sql, final List<Object> parameters) throws SQLException {
+        synchronized (pooledConnection) {
+            final PreparedStatement preparedStatement = pooledConnection.getConnection().prepareStatement(sql);
+            try {
+                setParameters(preparedStatement, parameters);
+                preparedStatement.closeOnCompletion();
+                return preparedStatement.executeQuery();
+            } catch (final SQLException e) {
+                close(preparedStatement);
+                throw e;
+            }
+        }
     }
 
     /**
@@ -190,25 +601,520 @@ public abstract class Database {
      *
      * @param sql        sql statement
      * @param parameters parameters of the prepared statement
-     * @return number of rows updated
+     * @return number of rows updated, -1 if it failed
      */
     public int executeUpdate(final String sql, final List<Object> parameters) {
-        int numberRowsUpdated = -1;
+        try {
+            return update(sql, parameters);
+        } catch (final SQLException e) {
+            e.printStackTrace();
+            return -1;
+        }
+    }
+
+    /**
+     * Update Database throwing the failures instead of returning -1.
+     * Inside a transaction of the same thread the statement runs on the connection of that transaction.
+     *
+     * @param sql        sql statement
+     * @param parameters parameters of the prepared statement
+     * @return number of rows updated
+     * @throws SQLException if the statement failed
+     */
+    public int update(final String sql, final List<Object> parameters) throws SQLException {
+        final Transaction transaction = currentTransaction.get();
+        if (transaction != null)
+            return transaction.executeUpdate(sql, parameters);
+
+        final PooledConnection pooledConnection = borrowConnection();
+        synchronized (pooledConnection) {
+            PreparedStatement preparedStatement = null;
+            try {
+                preparedStatement = prepareStatement(pooledConnection, sql, parameters);
+                return preparedStatement.executeUpdate();
+            } catch (final SQLException e) {
+                pooledConnection.getStatementCache().invalidate(sql);
+                throw e;
+            } finally {
+                releaseStatement(pooledConnection, preparedStatement);
+                releaseConnection(pooledConnection);
+            }
+        }
+    }
+
+    /**
+     * Query Database streaming the rows.
+     * Rows are fetched from the server while the stream is consumed, which holds a connection
+     * until the stream is exhausted or closed, so it should be used in a try-with-resources.
+     * It always reads on its own connection, even inside a transaction.
+     *
+     * @param sql        sql query
+     * @param parameters parameters of the prepared statement
+     * @param mapper     mapper of each row
+     * @param <T>        type of the mapped rows
+     * @return lazily consumed stream of the mapped rows
+     * @throws SQLException if the query could not be executed
+     */
+    public <T> Stream<T> executeStream(final String sql, final List<Object> parameters, final RowMapper<T> mapper) throws SQLException {
+        return executeStream(sql, parameters, mapper, fetchSize);
+    }
+
+    /**
+     * Query Database streaming the rows.
+     * Rows are fetched from the server while the stream is consumed, which holds a connection
+     * until the stream is exhausted or closed, so it should be used in a try-with-resources.
+     * It always reads on its own connection, even inside a transaction.
+     *
+     * @param sql        sql query
+     * @param parameters parameters of the prepared statement
+     * @param mapper     mapper of each row
+     * @param fetchSize  number of rows fetched per round-trip
+     * @param <T>        type of the mapped rows
+     * @return lazily consumed stream of the mapped rows
+     * @throws SQLException if the query could not be executed
+     */
+    public <T> Stream<T> executeStream(final String sql, final List<Object> parameters, final RowMapper<T> mapper, final int fetchSize) throws SQLException {
+        // The shared single connection can't be held by a cursor, so it uses a dedicated one
+        final PooledConnection pooledConnection = isPooled() ? borrowConnection() : null;
+        final Connection streamConnection = pooledConnection != null ? pooledConnection.getConnection() : DriverManager.getConnection(url, username, password);
+
         PreparedStatement preparedStatement = null;
+        ResultSet resultSet = null;
+        boolean autoCommit = true;
         try {
-            preparedStatement = connection.prepareStatement(sql);
+            autoCommit = streamConnection.getAutoCommit();
+            preparedStatement = streamConnection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            configureStreaming(streamConnection, preparedStatement, fetchSize);
+            setParameters(preparedStatement, parameters);
+            resultSet = preparedStatement.executeQuery();
+        } catch (final SQLException e) {
+            close(resultSet);
+            close(preparedStatement);
+            releaseStreamConnection(pooledConnection, streamConnection, autoCommit);
+            throw e;
+        }
+
+        final PreparedStatement streamStatement = preparedStatement;
+        final ResultSet streamResultSet = resultSet;
+        final boolean streamAutoCommit = autoCommit;
+        final ResultSetIterator<T> iterator = new ResultSetIterator<>(streamResultSet, mapper, () -> {
+            close(streamResultSet);
+            close(streamStatement);
+            releaseStreamConnection(pooledConnection, streamConnection, streamAutoCommit);
+        });
+
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED), false)
+                .onClose(iterator::close);
+    }
+
+    /**
+     * Configure a statement to fetch its rows from the server as they are consumed
+     *
+     * @param connection connection of the statement
+     * @param statement  statement to be configured
+     * @param fetchSize  number of rows fetched per round-trip
+     * @throws SQLException if the statement could not be configured
+     */
+    protected void configureStreaming(final Connection connection, final PreparedStatement statement, final int fetchSize) throws SQLException {
+        statement.setFetchSize(fetchSize);
+    }
+
+    /**
+     * Release the connection used by a stream, restoring its auto commit mode
+     *
+     * @param pooledConnection pooled connection of the stream, null if it was a dedicated one
+     * @param streamConnection connection of the stream
+     * @param autoCommit       auto commit mode of the connection before streaming
+     */
+    private void releaseStreamConnection(final PooledConnection pooledConnection, final Connection streamConnection, final boolean autoCommit) {
+        try {
+            if (!streamConnection.isClosed() && streamConnection.getAutoCommit() != autoCommit) {
+                streamConnection.commit();
+                streamConnection.setAutoCommit(autoCommit);
+            }
+        } catch (final SQLException e) {
+            e.printStackTrace();
+        }
+
+        if (pooledConnection != null) {
+            releaseConnection(pooledConnection);
+            return;
+        }
+
+        try {
+            streamConnection.close();
+        } catch (final SQLException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Update Database in batches.
+     * Rows are sent in chunks of the given size, each chunk optionally in its own transaction.
+     * Once a chunk fails the remaining rows are not executed.
+     * Inside a transaction of the same thread the chunks run on its connection and are not committed on their own.
+     *
+     * @param sql           sql statement
+     * @param rows          parameters of the prepared statement for each row
+     * @param batchSize     maximum number of rows per chunk
+     * @param transactional true to commit each chunk as a single transaction
+     * @return update count of each row, drivers may report {@link Statement#SUCCESS_NO_INFO} and
+     * failed or skipped rows are {@link Statement#EXECUTE_FAILED}
+     */
+    public int[] executeBatch(final String sql, final List<List<Object>> rows, final int batchSize, final boolean transactional) {
+        if (batchSize <= 0)
+            throw new IllegalArgumentException("Batch size must be positive.");
 
-            int index = 0;
-            for (final Object parameter : parameters)
-                preparedStatement.setObject(++index, parameter);
+        final int[] updateCounts = new int[rows.size()];
+        Arrays.fill(updateCounts, Statement.EXECUTE_FAILED);
+        if (rows.isEmpty())
+            return updateCounts;
 
-            numberRowsUpdated = preparedStatement.executeUpdate();
+        // Inside a transaction the chunks are part of it, so they are neither committed nor rolled back here
+        final Transaction transaction = currentTransaction.get();
+        if (transaction != null) {
+            for (int start = 0; start < rows.size(); start += batchSize) {
+                final int end = Math.min(start + batchSize, rows.size());
+                try {
+                    final int[] chunkCounts = transaction.executeBatch(sql, rows.subList(start, end));
+                    System.arraycopy(chunkCounts, 0, updateCounts, start, Math.min(chunkCounts.length, end - start));
+                } catch (final SQLException e) {
+                    e.printStackTrace();
+                    if (e instanceof BatchUpdateException) {
+                        final int[] chunkCounts = ((BatchUpdateException) e).getUpdateCounts();
+                        if (chunkCounts != null)
+                            System.arraycopy(chunkCounts, 0, updateCounts, start, Math.min(chunkCounts.length, end - start));
+                    }
+                    break;
+                }
+            }
+            return updateCounts;
+        }
+
+        final PooledConnection pooledConnection;
+        try {
+            pooledConnection = borrowConnection();
         } catch (final SQLException e) {
             e.printStackTrace();
+            return updateCounts;
+        }
+
+        synchronized (pooledConnection) {
+            final Connection batchConnection = pooledConnection.getConnection();
+            PreparedStatement preparedStatement = null;
+            boolean autoCommit = true;
+            try {
+                autoCommit = batchConnection.getAutoCommit();
+                if (transactional)
+                    batchConnection.setAutoCommit(false);
+
+                preparedStatement = prepareStatement(pooledConnection, sql, new ArrayList<>());
+                for (int start = 0; start < rows.size(); start += batchSize) {
+                    final int end = Math.min(start + batchSize, rows.size());
+                    for (int row = start; row < end; row++) {
+                        setParameters(preparedStatement, rows.get(row));
+                        preparedStatement.addBatch();
+                    }
+
+                    try {
+                        final int[] chunkCounts = preparedStatement.executeBatch();
+                        if (transactional)
+                            batchConnection.commit();
+                        System.arraycopy(chunkCounts, 0, updateCounts, start, Math.min(chunkCounts.length, end - start));
+                    } catch (final SQLException e) {
+                        preparedStatement.clearBatch();
+                        if (transactional) {
+                            batchConnection.rollback();
+                        } else if (e instanceof BatchUpdateException) {
+                            final int[] chunkCounts = ((BatchUpdateException) e).getUpdateCounts();
+                            if (chunkCounts != null)
+                                System.arraycopy(chunkCounts, 0, updateCounts, start, Math.min(chunkCounts.length, end - start));
+                        }
+                        throw e;
+                    }
+                }
+            } catch (final SQLException e) {
+                e.printStackTrace();
+                pooledConnection.getStatementCache().invalidate(sql);
+            } finally {
+                try {
+                    if (transactional)
+                        batchConnection.setAutoCommit(autoCommit);
+                } catch (final SQLException e) {
+                    e.printStackTrace();
+                }
+                releaseStatement(pooledConnection, preparedStatement);
+                releaseConnection(pooledConnection);
+            }
+        }
+
+        return updateCounts;
+    }
+
+    /**
+     * Run a unit of work inside a transaction, committing it if the work succeeds and rolling it back otherwise.
+     * The work is run again if the transaction fails because of a deadlock or serialization failure.
+     * Calling it inside another transaction of the same thread runs the work in a savepoint of that transaction.
+     *
+     * @param task work to be run
+     * @param <T>  type of the result
+     * @return result of the work
+     * @throws SQLException if the work failed or the retries were exhausted
+     */
+    public <T> T transaction(final TransactionTask<T> task) throws SQLException {
+        return transaction(DEFAULT_ISOLATION, task);
+    }
+
+    /**
+     * Run a unit of work inside a transaction, committing it if the work succeeds and rolling it back otherwise.
+     * The work is run again if the transaction fails because of a deadlock or serialization failure.
+     * Calling it inside another transaction of the same thread runs the work in a savepoint of that transaction.
+     *
+     * @param isolation isolation level of the transaction, such as {@link Connection#TRANSACTION_SERIALIZABLE}
+     * @param task      work to be run
+     * @param <T>       type of the result
+     * @return result of the work
+     * @throws SQLException if the work failed or the retries were exhausted
+     */
+    public <T> T transaction(final int isolation, final TransactionTask<T> task) throws SQLException {
+        final Transaction outerTransaction = currentTransaction.get();
+        if (outerTransaction != null)
+            return outerTransaction.savepoint(task);
+
+        int attempt = 0;
+        while (true) {
+            try {
+                final PooledConnection pooledConnection = borrowConnection();
+                try {
+                    synchronized (pooledConnection) {
+                        return runTransaction(pooledConnection, isolation, task);
+                    }
+                } finally {
+                    releaseConnection(pooledConnection);
+                }
+            } catch (final SQLException e) {
+                if (attempt >= maxTransactionRetries || !isRetryable(e))
+                    throw e;
+
+                // Back off with jitter so the conflicting transactions do not collide again
+                attempt++;
+                transactionRetries.incrementAndGet();
+                try {
+                    final long backoff = RETRY_BACKOFF << Math.min(attempt, 6);
+                    Thread.sleep(backoff + ThreadLocalRandom.current().nextLong(backoff));
+                } catch (final InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+            }
+        }
+    }
+
+    /**
+     * Check if a transaction failed because of a deadlock or serialization failure, so it can be retried
+     *
+     * @param exception exception thrown by the transaction
+     * @return true if it can be retried, false otherwise
+     */
+    protected boolean isRetryable(final SQLException exception) {
+        if (exception instanceof SQLTransactionRollbackException)
+            return true;
+
+        // SQL state class 40 is transaction rollback
+        final String sqlState = exception.getSQLState();
+        return sqlState != null && sqlState.startsWith("40");
+    }
+
+    /**
+     * Run a single attempt of a transaction on a connection
+     *
+     * @param pooledConnection connection of the transaction
+     * @param isolation        isolation level of the transaction
+     * @param task             work to be run
+     * @param <T>              type of the result
+     * @return result of the work
+     * @throws SQLException if the work failed
+     */
+    private <T> T runTransaction(final PooledConnection pooledConnection, final int isolation, final TransactionTask<T> task) throws SQLException {
+        final Connection transactionConnection = pooledConnection.getConnection();
+        final boolean autoCommit = transactionConnection.getAutoCommit();
+        final int previousIsolation = transactionConnection.getTransactionIsolation();
+        if (isolation != DEFAULT_ISOLATION)
+            transactionConnection.setTransactionIsolation(isolation);
+        transactionConnection.setAutoCommit(false);
+
+        currentTransaction.set(new Transaction(this, pooledConnection));
+        try {
+            final T result = task.run(currentTransaction.get());
+            transactionConnection.commit();
+            transactionCommits.incrementAndGet();
+            return result;
+        } catch (final SQLException | RuntimeException e) {
+            transactionRollbacks.incrementAndGet();
+            try {
+                transactionConnection.rollback();
+            } catch (final SQLException rollbackException) {
+                e.addSuppressed(rollbackException);
+            }
+            throw e;
         } finally {
-            close(preparedStatement);
+            currentTransaction.remove();
+
+            // Give the connection back as it was, or drop it if that is not possible and it is not the shared one
+            try {
+                transactionConnection.setAutoCommit(autoCommit);
+                if (isolation != DEFAULT_ISOLATION)
+                    transactionConnection.setTransactionIsolation(previousIsolation);
+            } catch (final SQLException e) {
+                e.printStackTrace();
+                if (pooledConnection != connectionHandle)
+                    pooledConnection.close();
+            }
         }
+    }
+
+    /**
+     * Build the sql of a insertion of several rows in a single statement.
+     * Its parameters are the values of each row one after the other.
+     *
+     * @param tableName name of the table to execute the insertion
+     * @param columns   columns to set the values
+     * @param rows      number of rows inserted by the statement
+     * @return sql of the insertion
+     */
+    public String insertionSql(final String tableName, final List<String> columns, final int rows) {
+        if (rows <= 0)
+            throw new IllegalArgumentException("Number of rows must be positive.");
 
-        return numberRowsUpdated;
+        final StringBuilder sql = new StringBuilder("INSERT INTO ").append(tableName).append(" (");
+        appendColumns(sql, columns, "", "");
+        sql.append(") VALUES ");
+        for (int row = 0; row < rows; row++) {
+            if (row > 0)
+                sql.append(", ");
+            sql.append("(");
+            appendPlaceholders(sql, columns.size());
+            sql.append(")");
+        }
+        return sql.append(";").toString();
+    }
+
+    /**
+     * Build the sql of a upsert, which inserts a row or updates it if its keys already exist.
+     * Its parameters are the values of the keys followed by the values of the columns.
+     * The default is the standard MERGE statement, dialects override it with their own syntax.
+     *
+     * @param tableName name of the table to execute the upsert
+     * @param keys      columns of the unique key of the table
+     * @param columns   columns to set the values
+     * @param additive  true to add the values to the existing ones, false to replace them
+     * @return sql of the upsert
+     */
+    public String upsertSql(final String tableName, final List<String> keys, final List<String> columns, final boolean additive) {
+        final List<String> allColumns = concat(keys, columns);
+
+        final StringBuilder sql = new StringBuilder("MERGE INTO ").append(tableName).append(" D USING (VALUES (");
+        appendPlaceholders(sql, allColumns.size());
+        sql.append(")) AS S (");
+        appendColumns(sql, allColumns, "", "");
+        sql.append(") ON (");
+        appendConditions(sql, keys);
+        sql.append(")");
+        if (!columns.isEmpty()) {
+            sql.append(" WHEN MATCHED THEN UPDATE SET ");
+            appendAssignments(sql, columns, "", additive ? "D." : null);
+        }
+        sql.append(" WHEN NOT MATCHED THEN INSERT (");
+        appendColumns(sql, allColumns, "", "");
+        sql.append(") VALUES (");
+        appendColumns(sql, allColumns, "S.", "");
+        return sql.append(");").toString();
+    }
+
+    /**
+     * Join two lists of columns
+     *
+     * @param first  first columns
+     * @param second columns appended after the first ones
+     * @return joined columns
+     */
+    protected static List<String> concat(final List<String> first, final List<String> second) {
+        final List<String> columns = new ArrayList<>(first.size() + second.size());
+        columns.addAll(first);
+        columns.addAll(second);
+        return columns;
+    }
+
+    /**
+     * Append a list of columns separated by commas
+     *
+     * @param sql     sql being built
+     * @param columns columns to be appended
+     * @param prefix  prefix of each column
+     * @param suffix  suffix of each column
+     */
+    protected static void appendColumns(final StringBuilder sql, final List<String> columns, final String prefix, final String suffix) {
+        for (int index = 0; index < columns.size(); index++) {
+            if (index > 0)
+                sql.append(", ");
+            sql.append(prefix).append(columns.get(index)).append(suffix);
+        }
+    }
+
+    /**
+     * Append parameter placeholders separated by commas
+     *
+     * @param sql   sql being built
+     * @param count number of placeholders
+     */
+    protected static void appendPlaceholders(final StringBuilder sql, final int count) {
+        for (int index = 0; index < count; index++)
+            sql.append(index > 0 ? ", ?" : "?");
+    }
+
+    /**
+     * Append the conditions matching the keys of the target (D) and source (S) rows of a merge
+     *
+     * @param sql  sql being built
+     * @param keys columns of the unique key
+     */
+    protected static void appendConditions(final StringBuilder sql, final List<String> keys) {
+        for (int index = 0; index < keys.size(); index++) {
+            if (index > 0)
+                sql.append(" AND ");
+            sql.append("D.").append(keys.get(index)).append(" = S.").append(keys.get(index));
+        }
+    }
+
+    /**
+     * Append the assignments of the columns of a merge from its source (S) row
+     *
+     * @param sql            sql being built
+     * @param columns        columns to be assigned
+     * @param targetPrefix   prefix of the assigned columns
+     * @param additivePrefix prefix of the current values to add to, null to replace them
+     */
+    protected static void appendAssignments(final StringBuilder sql, final List<String> columns, final String targetPrefix, final String additivePrefix) {
+        for (int index = 0; index < columns.size(); index++) {
+            if (index > 0)
+                sql.append(", ");
+            final String column = columns.get(index);
+            sql.append(targetPrefix).append(column).append(" = ");
+            if (additivePrefix != null)
+                sql.append(additivePrefix).append(column).append(" + ");
+            sql.append("S.").append(column);
+        }
+    }
+
+    /**
+     * Get the factory of detached result sets
+     *
+     * @return factory of detached result sets
+     * @throws SQLException if the factory could not be created
+     */
+    static RowSetFactory getRowSetFactory() throws SQLException {
+        if (rowSetFactory == null)
+            rowSetFactory = RowSetProvider.newFactory();
+        return rowSetFactory;
     }
 }
@@ -1,11 +1,17 @@
 package net.revtut.libraries.generic.database;
 
 import net.revtut.libraries.generic.database.utils.DataType;
+import net.revtut.libraries.generic.database.utils.RowMapper;
+import net.revtut.libraries.generic.database.utils.StatementKey;
+import net.revtut.libraries.generic.database.utils.Statements;
 
 import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
 
 /**
  * Database API
@@ -13,6 +19,16 @@ import java.util.Map;
  */
 public class DatabaseAPI {
 
+    /**
+     * Maximum number of cached compiled statements
+     */
+    private static final int MAX_COMPILED_STATEMENTS = 512;
+
+    /**
+     * Compiled statements by their shape
+     */
+    private static final Map<StatementKey, CompiledStatement> compiledStatements = new ConcurrentHashMap<>();
+
     /**
      * Create a table in a database
      * @param database database to be created the table
@@ -20,18 +36,16 @@ public class DatabaseAPI {
      * @param columns columns of the database
      */
     public static void createTable(final Database database, final String tableName, final Map<String, DataType> columns) {
-        String sql = "CREATE TABLE IF NOT EXISTS " + tableName + " (";
-        int index = 1;
+        final StringBuilder sql = new StringBuilder("CREATE TABLE IF NOT EXISTS ").append(tableName).append(" (");
+        int index = 0;
         for(final Map.Entry<String, DataType> entry : columns.entrySet()) {
-            sql += entry.getKey() + " " + entry.getValue();
-
-            if(index < columns.size())
-                sql += ", ";
-            index++;
+            if(index++ > 0)
+                sql.append(", ");
+            sql.append(entry.getKey()).append(" ").append(entry.getValue());
         }
-        sql += ");";
+        sql.append(");");
 
-        database.executeUpdate(sql, new ArrayList<>());
+        database.executeUpdate(sql.toString(), new ArrayList<>());
     }
 
     /**
@@ -43,32 +57,23 @@ public class DatabaseAPI {
      * @param whereValues values of the where columns
      */
     public static ResultSet executeQuery(final Database database, final String tableName, final List<String> columns, final List<String> where, final List<Object> whereValues) {
-        String sql = "SELECT ";
-
-        // Columns to select
-        int index = 1;
-        for(final String column : columns) {
-            sql += column;
-
-            if(index < columns.size())
-                sql += ", ";
-            index++;
-        }
-        sql += " FROM " + tableName + " WHERE ";
-
-        // Where
-        index = 1;
-        for(final String column : where) {
-            sql += column + " = ?";
-
-            if(index < where.size())
-                sql += " AND ";
-            index++;
-        }
-        sql += ";";
+        return compileQuery(tableName, columns, where).executeQuery(database, whereValues);
+    }
 
-        final List<Object> parameters = new ArrayList<>(whereValues);
-        return database.executeQuery(sql, parameters);
+    /**
+     * Execute a query in a database streaming the rows, to be used in a try-with-resources
+     * @param database database to be queried
+     * @param tableName name of the table to be queried
+     * @param columns columns to be selected
+     * @param where columns of the "Where" condition
+     * @param whereValues values of the where columns
+     * @param mapper mapper of each row
+     * @param <T> type of the mapped rows
+     * @return lazily consumed stream of the mapped rows
+     * @throws SQLException if the query could not be executed
+     */
+    public static <T> Stream<T> executeQuery(final Database database, final String tableName, final List<String> columns, final List<String> where, final List<Object> whereValues, final RowMapper<T> mapper) throws SQLException {
+        return compileQuery(tableName, columns, where).executeStream(database, whereValues, mapper);
     }
 
     /**
@@ -78,33 +83,83 @@ public class DatabaseAPI {
      * @param columns columns to set the values
      */
     public static void executeInsertion(final Database database, final String tableName, final Map<String, Object> columns) {
-        final List<Object> parameters = new ArrayList<>();
-
-        // Columns
-        String sql = "INSERT INTO " + tableName + " (";
-        int index = 1;
+        final List<String> columnNames = new ArrayList<>(columns.size());
+        final List<Object> parameters = new ArrayList<>(columns.size());
         for(final Map.Entry<String, Object> entry : columns.entrySet()) {
-            sql += entry.getKey();
+            columnNames.add(entry.getKey());
             parameters.add(entry.getValue());
-
-            if(index < columns.size())
-                sql += ", ";
-            index++;
         }
-        sql += ") VALUES (";
 
-        // Values
-        index = 1;
-        for(final Map.Entry<String, Object> ignored : columns.entrySet()) {
-            sql += "?";
+        compileInsertion(tableName, columnNames).executeUpdate(database, parameters);
+    }
 
-            if(index < columns.size())
-                sql += ", ";
-            index++;
+    /**
+     * Execute several insertions into a database using batches
+     * @param database database to execute the insertions
+     * @param tableName name of the table to execute the insertions
+     * @param columns columns to set the values
+     * @param rows values of each row, sorted accordingly with the columns
+     * @param batchSize maximum number of rows sent per batch
+     * @param transactional true to commit each batch as a single transaction
+     * @return update count of each row
+     */
+    public static int[] executeInsertion(final Database database, final String tableName, final List<String> columns, final List<List<Object>> rows, final int batchSize, final boolean transactional) {
+        return compileInsertion(tableName, columns).executeBatch(database, rows, batchSize, transactional);
+    }
+
+    /**
+     * Execute several insertions into a database packing many rows in each statement
+     * @param database database to execute the insertions
+     * @param tableName name of the table to execute the insertions
+     * @param columns columns to set the values
+     * @param rows values of each row, sorted accordingly with the columns
+     * @param rowsPerStatement maximum number of rows per statement
+     * @return number of rows inserted, rows of failed statements are not counted
+     */
+    public static int executeMultiRowInsertion(final Database database, final String tableName, final List<String> columns, final List<List<Object>> rows, final int rowsPerStatement) {
+        if(rowsPerStatement <= 0)
+            throw new IllegalArgumentException("Rows per statement must be positive.");
+
+        int inserted = 0;
+        for(int start = 0; start < rows.size(); start += rowsPerStatement) {
+            final int end = Math.min(start + rowsPerStatement, rows.size());
+            final List<Object> parameters = new ArrayList<>((end - start) * columns.size());
+            for(int index = start; index < end; index++)
+                parameters.addAll(rows.get(index));
+
+            final int result = compileInsertion(database, tableName, columns, end - start).executeUpdate(database, parameters);
+            if(result > 0)
+                inserted += result;
         }
-        sql += ");";
+        return inserted;
+    }
 
-        database.executeUpdate(sql, parameters);
+    /**
+     * Execute a upsert in a database, inserting the row or updating it if its keys already exist
+     * @param database database to execute the upsert
+     * @param tableName name of the table to execute the upsert
+     * @param keys columns of the unique key of the table
+     * @param columns columns to set the values
+     * @param values values of the keys followed by the values of the columns
+     * @return number of rows affected as reported by the driver
+     */
+    public static int executeUpsert(final Database database, final String tableName, final List<String> keys, final List<String> columns, final List<Object> values) {
+        return compileUpsert(database, tableName, keys, columns, false).executeUpdate(database, values);
+    }
+
+    /**
+     * Execute several upserts in a database using batches
+     * @param database database to execute the upserts
+     * @param tableName name of the table to execute the upserts
+     * @param keys columns of the unique key of the table
+     * @param columns columns to set the values
+     * @param rows values of each row, the values of the keys followed by the values of the columns
+     * @param batchSize maximum number of rows sent per batch
+     * @param transactional true to commit each batch as a single transaction
+     * @return update count of each row
+     */
+    public static int[] executeUpsert(final Database database, final String tableName, final List<String> keys, final List<String> columns, final List<List<Object>> rows, final int batchSize, final boolean transactional) {
+        return compileUpsert(database, tableName, keys, columns, false).executeBatch(database, rows, batchSize, transactional);
     }
 
     /**
@@ -117,34 +172,25 @@ public class DatabaseAPI {
      * @param whereValues values of the where columns
      */
     public static void executeUpdate(final Database database, final String tableName, final List<String> columns, final List<Object> values, final List<String> where, final List<String> whereValues) {
-        String sql = "UPDATE " + tableName + " SET ";
-
-        // Set
-        int index = 1;
-        for(final String column : columns) {
-            sql += column + " = ?";
-
-            if(index < columns.size())
-                sql += ", ";
-            index++;
-        }
-        sql += " WHERE ";
-
-        // Where
-        index = 1;
-        for(final String column : where) {
-            sql += column + " = ?";
-
-            if(index < where.size())
-                sql += " AND ";
-            index++;
-        }
-        sql += ";";
-
         // Merge values and whereValues
         final List<Object> parameters = new ArrayList<>(values);
         parameters.addAll(whereValues);
-        database.executeUpdate(sql, parameters);
+        compileUpdate(tableName, columns, where).executeUpdate(database, parameters);
+    }
+
+    /**
+     * Execute several updates in a database using batches
+     * @param database database to be updated the table
+     * @param tableName name of the table to be updated
+     * @param columns columns to be updated
+     * @param where columns of the "Where" condition
+     * @param rows values of each row, the values of the columns followed by the values of the where columns
+     * @param batchSize maximum number of rows sent per batch
+     * @param transactional true to commit each batch as a single transaction
+     * @return update count of each row
+     */
+    public static int[] executeUpdate(final Database database, final String tableName, final List<String> columns, final List<String> where, final List<List<Object>> rows, final int batchSize, final boolean transactional) {
+        return compileUpdate(tableName, columns, where).executeBatch(database, rows, batchSize, transactional);
     }
 
     /**
@@ -155,20 +201,224 @@ public class DatabaseAPI {
      * @param whereValues values of the where columns
      */
     public static void executeDeletation(final Database database, final String tableName, final List<String> where, final List<String> whereValues) {
-        String sql = "DELETE FROM " + tableName + " WHERE ";
+        final List<Object> parameters = new ArrayList<>(whereValues);
+        compileDeletation(tableName, where).executeUpdate(database, parameters);
+    }
 
-        // Where
-        int index = 1;
-        for(final String column : where) {
-            sql += column + " = ?";
+    /**
+     * Compile a query, the sql is generated once per table and column shape
+     * @param tableName name of the table to be queried
+     * @param columns columns to be selected
+     * @param where columns of the "Where" condition
+     * @return compiled query
+     */
+    public static CompiledStatement compileQuery(final String tableName, final List<String> columns, final List<String> where) {
+        return compile(Statements.SELECT, tableName, columns, where);
+    }
 
-            if(index < where.size())
-                sql += " AND ";
-            index++;
+    /**
+     * Compile a insertion, the sql is generated once per table and column shape
+     * @param tableName name of the table to execute the insertion
+     * @param columns columns to set the values
+     * @return compiled insertion
+     */
+    public static CompiledStatement compileInsertion(final String tableName, final List<String> columns) {
+        return compile(Statements.INSERT, tableName, columns, null);
+    }
+
+    /**
+     * Compile a update, the sql is generated once per table and column shape.
+     * Its parameters are the values of the columns followed by the values of the where columns.
+     * @param tableName name of the table to be updated
+     * @param columns columns to be updated
+     * @param where columns of the "Where" condition
+     * @return compiled update
+     */
+    public static CompiledStatement compileUpdate(final String tableName, final List<String> columns, final List<String> where) {
+        return compile(Statements.UPDATE, tableName, columns, where);
+    }
+
+    /**
+     * Compile a deletion, the sql is generated once per table and column shape
+     * @param tableName name of the table to delete from
+     * @param where columns of the "Where" condition
+     * @return compiled deletion
+     */
+    public static CompiledStatement compileDeletation(final String tableName, final List<String> where) {
+        return compile(Statements.DELETE, tableName, null, where);
+    }
+
+    /**
+     * Compile a insertion of several rows in a single statement using the dialect of the database
+     * @param database database whose dialect generates the statement
+     * @param tableName name of the table to execute the insertion
+     * @param columns columns to set the values
+     * @param rows number of rows inserted by the statement
+     * @return compiled insertion
+     */
+    public static CompiledStatement compileInsertion(final Database database, final String tableName, final List<String> columns, final int rows) {
+        return compile(database, Statements.INSERT, tableName, columns, null, rows);
+    }
+
+    /**
+     * Compile a upsert using the dialect of the database.
+     * Its parameters are the values of the keys followed by the values of the columns.
+     * @param database database whose dialect generates the statement
+     * @param tableName name of the table to execute the upsert
+     * @param keys columns of the unique key of the table
+     * @param columns columns to set the values
+     * @param additive true to add the values to the existing ones, false to replace them
+     * @return compiled upsert
+     */
+    public static CompiledStatement compileUpsert(final Database database, final String tableName, final List<String> keys, final List<String> columns, final boolean additive) {
+        return compile(database, Statements.MERGE, tableName, columns, keys, additive ? 1 : 0);
+    }
+
+    /**
+     * Get the number of compiled statements that are cached
+     * @return number of cached compiled statements
+     */
+    public static int getCompiledStatements() {
+        return compiledStatements.size();
+    }
+
+    /**
+     * Get a compiled statement from the cache, generating its sql if missing
+     * @param type type of the statement
+     * @param tableName name of the table
+     * @param columns columns of the statement
+     * @param where columns of the "Where" condition
+     * @return compiled statement
+     */
+    private static CompiledStatement compile(final Statements type, final String tableName, final List<String> columns, final List<String> where) {
+        return compile(null, type, tableName, columns, where, 0);
+    }
+
+    /**
+     * Get a compiled statement from the cache, generating its sql if missing
+     * @param database database whose dialect generates the statement, null if it is the same for every dialect
+     * @param type type of the statement
+     * @param tableName name of the table
+     * @param columns columns of the statement
+     * @param where columns of the "Where" condition, the keys of a merge
+     * @param variant number of rows of a insertion, 1 for additive merges
+     * @return compiled statement
+     */
+    private static CompiledStatement compile(final Database database, final Statements type, final String tableName, final List<String> columns, final List<String> where, final int variant) {
+        final StatementKey key = new StatementKey(type, database == null ? null : database.getClass(), tableName, columns, where, variant);
+        final CompiledStatement cached = compiledStatements.get(key);
+        if(cached != null)
+            return cached;
+
+        final CompiledStatement compiled;
+        switch (type) {
+            case SELECT:
+                compiled = new CompiledStatement(type, selectSql(tableName, columns, where), where.size());
+                break;
+            case INSERT:
+                if(database == null)
+                    compiled = new CompiledStatement(type, insertionSql(tableName, columns), columns.size());
+                else
+                    compiled = new CompiledStatement(type, database.insertionSql(tableName, columns, variant), columns.size() * variant);
+                break;
+            case UPDATE:
+                compiled = new CompiledStatement(type, updateSql(tableName, columns, where), columns.size() + where.size());
+                break;
+            case DELETE:
+                compiled = new CompiledStatement(type, deletationSql(tableName, where), where.size());
+                break;
+            case MERGE:
+                compiled = new CompiledStatement(type, database.upsertSql(tableName, where, columns, variant == 1), where.size() + columns.size());
+                break;
+            default:
+                throw new IllegalArgumentException("Statement " + type + " can not be compiled.");
         }
-        sql += ";";
 
-        final List<Object> parameters = new ArrayList<>(whereValues);
-        database.executeUpdate(sql, parameters);
+        // Shapes come from code so they are few, a full cache means they are being generated dynamically
+        if(compiledStatements.size() >= MAX_COMPILED_STATEMENTS)
+            compiledStatements.clear();
+        final CompiledStatement previous = compiledStatements.putIfAbsent(key.copy(), compiled);
+        return previous != null ? previous : compiled;
+    }
+
+    /**
+     * Build the sql of a query
+     * @param tableName name of the table to be queried
+     * @param columns columns to be selected
+     * @param where columns of the "Where" condition
+     * @return sql of the query
+     */
+    private static String selectSql(final String tableName, final List<String> columns, final List<String> where) {
+        final StringBuilder sql = new StringBuilder("SELECT ");
+        for(int index = 0; index < columns.size(); index++) {
+            if(index > 0)
+                sql.append(", ");
+            sql.append(columns.get(index));
+        }
+        sql.append(" FROM ").append(tableName).append(" WHERE ");
+        for(int index = 0; index < where.size(); index++) {
+            if(index > 0)
+                sql.append(" AND ");
+            sql.append(where.get(index)).append(" = ?");
+        }
+        return sql.append(";").toString();
+    }
+
+    /**
+     * Build the sql of a deletion
+     * @param tableName name of the table to delete from
+     * @param where columns of the "Where" condition
+     * @return sql of the deletion
+     */
+    private static String deletationSql(final String tableName, final List<String> where) {
+        final StringBuilder sql = new StringBuilder("DELETE FROM ").append(tableName).append(" WHERE ");
+        for(int index = 0; index < where.size(); index++) {
+            if(index > 0)
+                sql.append(" AND ");
+            sql.append(where.get(index)).append(" = ?");
+        }
+        return sql.append(";").toString();
+    }
+
+    /**
+     * Build the sql of a insertion
+     * @param tableName name of the table to execute the insertion
+     * @param columns columns to set the values
+     * @return sql of the insertion
+     */
+    private static String insertionSql(final String tableName, final List<String> columns) {
+        final StringBuilder sql = new StringBuilder("INSERT INTO ").append(tableName).append(" (");
+        for(int index = 0; index < columns.size(); index++) {
+            if(index > 0)
+                sql.append(", ");
+            sql.append(columns.get(index));
+        }
+        sql.append(") VALUES (");
+        for(int index = 0; index < columns.size(); index++)
+            sql.append(index > 0 ? ", ?" : "?");
+        return sql.append(");").toString();
+    }
+
+    /**
+     * Build the sql of a update
+     * @param tableName name of the table to be updated
+     * @param columns columns to be updated
+     * @param where columns of the "Where" condition
+     * @return sql of the update
+     */
+    private static String updateSql(final String tableName, final List<String> columns, final List<String> where) {
+        final StringBuilder sql = new StringBuilder("UPDATE ").append(tableName).append(" SET ");
+        for(int index = 0; index < columns.size(); index++) {
+            if(index > 0)
+                sql.append(", ");
+            sql.append(columns.get(index)).append(" = ?");
+        }
+        sql.append(" WHERE ");
+        for(int index = 0; index < where.size(); index++) {
+            if(index > 0)
+                sql.append(" AND ");
+            sql.append(where.get(index)).append(" = ?");
+        }
+        return sql.append(";").toString();
     }
 }
@@ -0,0 +1,168 @@
+package net.revtut.libraries.generic.database;
+
+import net.revtut.libraries.generic.database.pool.PooledConnection;
+import net.revtut.libraries.generic.database.utils.TransactionTask;
+
+import javax.sql.rowset.CachedRowSet;
+import java.sql.*;
+import java.util.List;
+
+/**
+ * Transaction.
+ * Connection held for the duration of a unit of work, all its statements are committed or rolled back together.
+ */
+public class Transaction {
+
+    /**
+     * Database of the transaction
+     */
+    private final Database database;
+
+    /**
+     * Connection held by the transaction
+     */
+    private final PooledConnection pooledConnection;
+
+    /**
+     * Number of savepoints created, used to name them
+     */
+    private int savepoints;
+
+    /**
+     * Constructor of Transaction
+     * @param database database of the transaction
+     * @param pooledConnection connection held by the transaction
+     */
+    Transaction(final Database database, final PooledConnection pooledConnection) {
+        this.database = database;
+        this.pooledConnection = pooledConnection;
+        this.savepoints = 0;
+    }
+
+    /**
+     * Get the database of the transaction
+     * @return database of the transaction
+     */
+    public Database getDatabase() {
+        return database;
+    }
+
+    /**
+     * Get the connection held by the transaction
+     * @return connection of the transaction
+     */
+    public Connection getConnection() {
+        return pooledConnection.getConnection();
+    }
+
+    /**
+     * Query inside the transaction. The result is detached from the connection.
+     * @param sql sql query
+     * @param parameters parameters of the prepared statement
+     * @return result of the given query
+     * @throws SQLException if the query failed
+     */
+    public ResultSet executeQuery(final String sql, final List<Object> parameters) throws SQLException {
+        final PreparedStatement preparedStatement = prepare(sql, parameters);
+        try (ResultSet liveResultSet = preparedStatement.executeQuery()) {
+            final CachedRowSet cachedRowSet = Database.getRowSetFactory().createCachedRowSet();
+            cachedRowSet.populate(liveResultSet);
+            return cachedRowSet;
+        } catch (final SQLException e) {
+            pooledConnection.getStatementCache().invalidate(sql);
+            throw e;
+        } finally {
+            database.releaseStatement(pooledConnection, preparedStatement);
+        }
+    }
+
+    /**
+     * Update inside the transaction
+     * @param sql sql statement
+     * @param parameters parameters of the prepared statement
+     * @return number of rows updated
+     * @throws SQLException if the statement failed
+     */
+    public int executeUpdate(final String sql, final List<Object> parameters) throws SQLException {
+        final PreparedStatement preparedStatement = prepare(sql, parameters);
+        try {
+            return preparedStatement.executeUpdate();
+        } catch (final SQLException e) {
+            pooledConnection.getStatementCache().invalidate(sql);
+            throw e;
+        } finally {
+            database.releaseStatement(pooledConnection, preparedStatement);
+        }
+    }
+
+    /**
+     * Update inside the transaction as a single batch
+     * @param sql sql statement
+     * @param rows parameters of the prepared statement for each row
+     * @return update count of each row
+     * @throws SQLException if the batch failed
+     */
+    public int[] executeBatch(final String sql, final List<List<Object>> rows) throws SQLException {
+        if(rows.isEmpty())
+            return new int[0];
+
+        final PreparedStatement preparedStatement = prepare(sql, rows.get(0));
+        try {
+            preparedStatement.addBatch();
+            for(int index = 1; index < rows.size(); index++) {
+                database.setParameters(preparedStatement, rows.get(index));
+                preparedStatement.addBatch();
+            }
+            return preparedStatement.executeBatch();
+        } catch (final SQLException e) {
+            pooledConnection.getStatementCache().invalidate(sql);
+            throw e;
+        } finally {
+            database.releaseStatement(pooledConnection, preparedStatement);
+        }
+    }
+
+    /**
+     * Run work inside a savepoint. If it fails only its statements are rolled back and the exception is rethrown,
+     * so the caller may catch it and carry on with the rest of the transaction. Savepoints can be nested.
+     * @param task work to be run
+     * @param <T> type of the result
+     * @return result of the work
+     * @throws SQLException if the work failed
+     */
+    public <T> T savepoint(final TransactionTask<T> task) throws SQLException {
+        final Connection connection = pooledConnection.getConnection();
+        final Savepoint savepoint = connection.setSavepoint("SP" + (++savepoints));
+
+        final T result;
+        try {
+            result = task.run(this);
+        } catch (final SQLException | RuntimeException e) {
+            connection.rollback(savepoint);
+            throw e;
+        }
+
+        try {
+            connection.releaseSavepoint(savepoint);
+        } catch (final SQLFeatureNotSupportedException ignored) {
+            // Released on commit anyway
+        }
+        return result;
+    }
+
+    /**
+     * Prepare a statement on the connection of the transaction
+     * @param sql sql statement
+     * @param parameters parameters of the prepared statement
+     * @return prepared statement ready to be executed
+     * @throws SQLException if the statement could not be prepared
+     */
+    private PreparedStatement prepare(final String sql, final List<Object> parameters) throws SQLException {
+        try {
+            return database.prepareStatement(pooledConnection, sql, parameters);
+        } catch (final SQLException e) {
+            pooledConnection.getStatementCache().invalidate(sql);
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,391 @@
+package net.revtut.libraries.generic.database.pool;
+
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.util.Iterator;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Connection Pool.
+ * Keeps a bounded set of connections to a database that are shared between threads.
+ */
+public class ConnectionPool {
+
+    /**
+     * Maximum time (in nanoseconds) to wait on the idle queue before retrying to create a connection
+     */
+    private static final long WAIT_SLICE = TimeUnit.MILLISECONDS.toNanos(50);
+
+    /**
+     * URL connection
+     */
+    private final String url;
+
+    /**
+     * Username of the Database
+     */
+    private final String username;
+
+    /**
+     * Password of the Database
+     */
+    private final String password;
+
+    /**
+     * Settings of the pool
+     */
+    private final PoolSettings settings;
+
+    /**
+     * Maximum number of cached prepared statements per connection
+     */
+    private final int statementCacheSize;
+
+    /**
+     * Idle connections, the most recently used one first
+     */
+    private final LinkedBlockingDeque<PooledConnection> idleConnections;
+
+    /**
+     * Number of connections opened by the pool (idle and borrowed)
+     */
+    private final AtomicInteger totalConnections;
+
+    /**
+     * Executor that evicts idle connections
+     */
+    private final ScheduledExecutorService evictor;
+
+    /**
+     * Borrow metrics
+     */
+    private final AtomicLong borrowCount, borrowTimeouts, borrowWaitTime, maxBorrowWaitTime;
+
+    /**
+     * Connection lifecycle metrics
+     */
+    private final AtomicLong createdConnections, destroyedConnections, failedValidations;
+
+    /**
+     * Flag to check if the pool was closed
+     */
+    private volatile boolean closed;
+
+    /**
+     * Constructor of ConnectionPool
+     * @param url url for connecting to the database
+     * @param username username of the database
+     * @param password password of the database
+     * @param settings settings of the pool
+     * @param statementCacheSize maximum number of cached prepared statements per connection
+     * @throws SQLException if the minimum connections could not be opened
+     */
+    public ConnectionPool(final String url, final String username, final String password, final PoolSettings settings, final int statementCacheSize) throws SQLException {
+        this.url = url;
+        this.username = username;
+        this.password = password;
+        this.settings = settings;
+        this.statementCacheSize = statementCacheSize;
+        this.idleConnections = new LinkedBlockingDeque<>();
+        this.totalConnections = new AtomicInteger();
+        this.borrowCount = new AtomicLong();
+        this.borrowTimeouts = new AtomicLong();
+        this.borrowWaitTime = new AtomicLong();
+        this.maxBorrowWaitTime = new AtomicLong();
+        this.createdConnections = new AtomicLong();
+        this.destroyedConnections = new AtomicLong();
+        this.failedValidations = new AtomicLong();
+        this.closed = false;
+
+        // The pool is discarded if it can not be filled, so the connections already opened are closed
+        try {
+            fill();
+        } catch (final SQLException | RuntimeException e) {
+            closed = true;
+            PooledConnection connection;
+            while((connection = idleConnections.pollFirst()) != null)
+                destroy(connection);
+            throw e;
+        }
+
+        this.evictor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "Database Pool Evictor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        final long interval = settings.getEvictionInterval();
+        this.evictor.scheduleWithFixedDelay(this::evictIdleConnections, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Get the settings of the pool
+     * @return settings of the pool
+     */
+    public PoolSettings getSettings() {
+        return settings;
+    }
+
+    /**
+     * Borrow a connection from the pool. It must be given back using {@link #release(PooledConnection)}
+     * @return borrowed connection
+     * @throws SQLException if the pool is closed, no connection was freed in time or a connection could not be opened
+     */
+    public PooledConnection borrow() throws SQLException {
+        if(closed)
+            throw new SQLException("Connection pool is closed.");
+
+        final long start = System.nanoTime();
+        final long deadline = start + TimeUnit.MILLISECONDS.toNanos(settings.getBorrowTimeout());
+        while(true) {
+            PooledConnection connection = idleConnections.pollFirst();
+
+            // No idle connection, open a new one or wait for one to be released
+            if(connection == null) {
+                connection = createConnection();
+                if(connection != null) {
+                    recordBorrow(start);
+                    return connection;
+                }
+
+                final long remaining = deadline - System.nanoTime();
+                if(remaining <= 0) {
+                    borrowTimeouts.incrementAndGet();
+                    throw new SQLTimeoutException("Timed out after " + settings.getBorrowTimeout() + "ms waiting for a database connection.");
+                }
+
+                try {
+                    connection = idleConnections.pollFirst(Math.min(remaining, WAIT_SLICE), TimeUnit.NANOSECONDS);
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new SQLException("Interrupted while waiting for a database connection.", e);
+                }
+
+                if(connection == null)
+                    continue;
+            }
+
+            // Validation on borrow
+            if(settings.isValidateOnBorrow() && !connection.isValid(settings.getValidationTimeout())) {
+                failedValidations.incrementAndGet();
+                destroy(connection);
+                continue;
+            }
+
+            recordBorrow(start);
+            return connection;
+        }
+    }
+
+    /**
+     * Give back a borrowed connection to the pool
+     * @param connection connection to be released
+     */
+    public void release(final PooledConnection connection) {
+        if(connection == null)
+            return;
+
+        try {
+            if(closed || connection.getConnection().isClosed()) {
+                destroy(connection);
+                return;
+            }
+        } catch (final SQLException e) {
+            destroy(connection);
+            return;
+        }
+
+        connection.touch();
+        idleConnections.offerFirst(connection);
+    }
+
+    /**
+     * Close the pool and all its idle connections. Borrowed connections are closed when released.
+     */
+    public void close() {
+        closed = true;
+        evictor.shutdownNow();
+
+        PooledConnection connection;
+        while((connection = idleConnections.pollFirst()) != null)
+            destroy(connection);
+    }
+
+    /**
+     * Check if the pool was closed
+     * @return true if closed, false otherwise
+     */
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Get the number of connections opened by the pool
+     * @return number of connections opened by the pool
+     */
+    public int getTotalConnections() {
+        return totalConnections.get();
+    }
+
+    /**
+     * Get the number of idle connections
+     * @return number of idle connections
+     */
+    public int getIdleConnections() {
+        return idleConnections.size();
+    }
+
+    /**
+     * Get the number of borrowed connections
+     * @return number of borrowed connections
+     */
+    public int getActiveConnections() {
+        return Math.max(0, totalConnections.get() - idleConnections.size());
+    }
+
+    /**
+     * Get the number of successful borrows
+     * @return number of successful borrows
+     */
+    public long getBorrowCount() {
+        return borrowCount.get();
+    }
+
+    /**
+     * Get the number of borrows that timed out
+     * @return number of borrows that timed out
+     */
+    public long getBorrowTimeouts() {
+        return borrowTimeouts.get();
+    }
+
+    /**
+     * Get the average time (in milliseconds) waited to borrow a connection
+     * @return average borrow time in milliseconds
+     */
+    public double getAverageBorrowTime() {
+        final long count = borrowCount.get();
+        if(count == 0)
+            return 0;
+        return borrowWaitTime.get() / (double) count / 1000000D;
+    }
+
+    /**
+     * Get the maximum time (in milliseconds) waited to borrow a connection
+     * @return maximum borrow time in milliseconds
+     */
+    public double getMaxBorrowTime() {
+        return maxBorrowWaitTime.get() / 1000000D;
+    }
+
+    /**
+     * Get the number of connections opened since the pool was created
+     * @return number of connections opened
+     */
+    public long getCreatedConnections() {
+        return createdConnections.get();
+    }
+
+    /**
+     * Get the number of connections closed since the pool was created
+     * @return number of connections closed
+     */
+    public long getDestroyedConnections() {
+        return destroyedConnections.get();
+    }
+
+    /**
+     * Get the number of connections that failed the validation on borrow
+     * @return number of connections that failed the validation
+     */
+    public long getFailedValidations() {
+        return failedValidations.get();
+    }
+
+    /**
+     * Open a new connection if the maximum size was not reached yet
+     * @return opened connection, null if the pool is full
+     * @throws SQLException if the connection could not be opened
+     */
+    private PooledConnection createConnection() throws SQLException {
+        // Reserve a slot on the pool
+        int current;
+        do {
+            current = totalConnections.get();
+            if(current >= settings.getMaxSize())
+                return null;
+        } while(!totalConnections.compareAndSet(current, current + 1));
+
+        try {
+            final PooledConnection connection = new PooledConnection(DriverManager.getConnection(url, username, password), statementCacheSize);
+            createdConnections.incrementAndGet();
+            return connection;
+        } catch (final SQLException e) {
+            totalConnections.decrementAndGet();
+            throw e;
+        }
+    }
+
+    /**
+     * Close a connection and free its slot on the pool
+     * @param connection connection to be destroyed
+     */
+    private void destroy(final PooledConnection connection) {
+        totalConnections.decrementAndGet();
+        destroyedConnections.incrementAndGet();
+        connection.close();
+    }
+
+    /**
+     * Open connections until the minimum size is reached
+     * @throws SQLException if a connection could not be opened
+     */
+    private void fill() throws SQLException {
+        while(!closed && totalConnections.get() < settings.getMinSize()) {
+            final PooledConnection connection = createConnection();
+            if(connection == null)
+                return;
+            idleConnections.offerLast(connection);
+        }
+    }
+
+    /**
+     * Close the connections that were idle for too long, keeping the minimum size
+     */
+    private void evictIdleConnections() {
+        final long now = System.currentTimeMillis();
+
+        // Least recently used connections are at the tail
+        final Iterator<PooledConnection> iterator = idleConnections.descendingIterator();
+        while(iterator.hasNext() && totalConnections.get() > settings.getMinSize()) {
+            final PooledConnection connection = iterator.next();
+            if(now - connection.getLastUsed() < settings.getIdleTimeout())
+                break;
+
+            if(idleConnections.removeLastOccurrence(connection))
+                destroy(connection);
+        }
+
+        try {
+            fill();
+        } catch (final SQLException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Record the metrics of a successful borrow
+     * @param start time (in nanoseconds) when the borrow started
+     */
+    private void recordBorrow(final long start) {
+        final long waited = System.nanoTime() - start;
+        borrowCount.incrementAndGet();
+        borrowWaitTime.addAndGet(waited);
+        maxBorrowWaitTime.accumulateAndGet(waited, Math::max);
+    }
+}
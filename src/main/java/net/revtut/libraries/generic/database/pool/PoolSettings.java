@@ -0,0 +1,158 @@
+package net.revtut.libraries.generic.database.pool;
+
+/**
+ * Settings of a connection pool
+ */
+public class PoolSettings {
+
+    /**
+     * Minimum and maximum number of connections on the pool
+     */
+    private int minSize, maxSize;
+
+    /**
+     * Time (in milliseconds) that a connection may stay idle before being evicted
+     */
+    private long idleTimeout;
+
+    /**
+     * Maximum time (in milliseconds) to wait for a free connection
+     */
+    private long borrowTimeout;
+
+    /**
+     * Interval (in milliseconds) between each idle eviction run
+     */
+    private long evictionInterval;
+
+    /**
+     * Time (in seconds) given to the driver to validate a connection
+     */
+    private int validationTimeout;
+
+    /**
+     * Flag to check if connections are validated when they are borrowed
+     */
+    private boolean validateOnBorrow;
+
+    /**
+     * Constructor of PoolSettings with the default values
+     */
+    public PoolSettings() {
+        this(2, 10);
+    }
+
+    /**
+     * Constructor of PoolSettings
+     * @param minSize minimum number of connections on the pool
+     * @param maxSize maximum number of connections on the pool
+     */
+    public PoolSettings(final int minSize, final int maxSize) {
+        if(minSize < 0 || maxSize <= 0 || minSize > maxSize)
+            throw new IllegalArgumentException("Invalid pool size (min: " + minSize + ", max: " + maxSize + ").");
+
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.idleTimeout = 10 * 60 * 1000L;
+        this.borrowTimeout = 30 * 1000L;
+        this.evictionInterval = 30 * 1000L;
+        this.validationTimeout = 5;
+        this.validateOnBorrow = true;
+    }
+
+    /**
+     * Get the minimum number of connections on the pool
+     * @return minimum number of connections on the pool
+     */
+    public int getMinSize() {
+        return minSize;
+    }
+
+    /**
+     * Get the maximum number of connections on the pool
+     * @return maximum number of connections on the pool
+     */
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Get the time (in milliseconds) that a connection may stay idle before being evicted
+     * @return idle timeout in milliseconds
+     */
+    public long getIdleTimeout() {
+        return idleTimeout;
+    }
+
+    /**
+     * Get the maximum time (in milliseconds) to wait for a free connection
+     * @return borrow timeout in milliseconds
+     */
+    public long getBorrowTimeout() {
+        return borrowTimeout;
+    }
+
+    /**
+     * Get the interval (in milliseconds) between each idle eviction run
+     * @return eviction interval in milliseconds
+     */
+    public long getEvictionInterval() {
+        return evictionInterval;
+    }
+
+    /**
+     * Get the time (in seconds) given to the driver to validate a connection
+     * @return validation timeout in seconds
+     */
+    public int getValidationTimeout() {
+        return validationTimeout;
+    }
+
+    /**
+     * Check if connections are validated when they are borrowed
+     * @return true if they are validated, false otherwise
+     */
+    public boolean isValidateOnBorrow() {
+        return validateOnBorrow;
+    }
+
+    /**
+     * Set the time (in milliseconds) that a connection may stay idle before being evicted
+     * @param idleTimeout idle timeout in milliseconds
+     */
+    public void setIdleTimeout(final long idleTimeout) {
+        this.idleTimeout = idleTimeout;
+    }
+
+    /**
+     * Set the maximum time (in milliseconds) to wait for a free connection
+     * @param borrowTimeout borrow timeout in milliseconds
+     */
+    public void setBorrowTimeout(final long borrowTimeout) {
+        this.borrowTimeout = borrowTimeout;
+    }
+
+    /**
+     * Set the interval (in milliseconds) between each idle eviction run
+     * @param evictionInterval eviction interval in milliseconds
+     */
+    public void setEvictionInterval(final long evictionInterval) {
+        this.evictionInterval = evictionInterval;
+    }
+
+    /**
+     * Set the time (in seconds) given to the driver to validate a connection
+     * @param validationTimeout validation timeout in seconds
+     */
+    public void setValidationTimeout(final int validationTimeout) {
+        this.validationTimeout = validationTimeout;
+    }
+
+    /**
+     * Set if connections are validated when they are borrowed
+     * @param validateOnBorrow new value for validate on borrow
+     */
+    public void setValidateOnBorrow(final boolean validateOnBorrow) {
+        this.validateOnBorrow = validateOnBorrow;
+    }
+}
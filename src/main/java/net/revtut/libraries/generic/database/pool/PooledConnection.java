@@ -0,0 +1,93 @@
+package net.revtut.libraries.generic.database.pool;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Pooled Connection.
+ * Wraps a physical connection together with its pool bookkeeping.
+ */
+public class PooledConnection {
+
+    /**
+     * Physical connection to the database
+     */
+    private final Connection connection;
+
+    /**
+     * Prepared statements of the connection
+     */
+    private final StatementCache statementCache;
+
+    /**
+     * Time (in milliseconds) when the connection was last returned
+     */
+    private long lastUsed;
+
+    /**
+     * Constructor of PooledConnection
+     * @param connection physical connection to the database
+     * @param statementCacheSize maximum number of cached prepared statements
+     */
+    public PooledConnection(final Connection connection, final int statementCacheSize) {
+        this.connection = connection;
+        this.statementCache = new StatementCache(statementCacheSize);
+        this.lastUsed = System.currentTimeMillis();
+    }
+
+    /**
+     * Get the physical connection to the database
+     * @return physical connection to the database
+     */
+    public Connection getConnection() {
+        return connection;
+    }
+
+    /**
+     * Get the prepared statements cache of the connection
+     * @return prepared statements cache
+     */
+    public StatementCache getStatementCache() {
+        return statementCache;
+    }
+
+    /**
+     * Get the time (in milliseconds) when the connection was last returned
+     * @return time when the connection was last returned
+     */
+    public long getLastUsed() {
+        return lastUsed;
+    }
+
+    /**
+     * Mark the connection as used right now
+     */
+    public void touch() {
+        this.lastUsed = System.currentTimeMillis();
+    }
+
+    /**
+     * Check if the connection is still usable
+     * @param timeout time (in seconds) given to the driver to validate the connection
+     * @return true if valid, false otherwise
+     */
+    public boolean isValid(final int timeout) {
+        try {
+            return !connection.isClosed() && connection.isValid(timeout);
+        } catch (final SQLException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Close the cached statements and the physical connection
+     */
+    public void close() {
+        statementCache.clear();
+        try {
+            connection.close();
+        } catch (final SQLException e) {
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package net.revtut.libraries.generic.database.pool;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Statement Cache.
+ * Least recently used cache of prepared statements of a single connection, keyed by their SQL.
+ * It is not thread safe, the owner of the connection must guard its use.
+ */
+public class StatementCache {
+
+    /**
+     * Maximum number of cached statements
+     */
+    private final int maxSize;
+
+    /**
+     * Cached statements ordered from the least to the most recently used
+     */
+    private final LinkedHashMap<String, PreparedStatement> statements;
+
+    /**
+     * Number of statements evicted from the cache
+     */
+    private long evictions;
+
+    /**
+     * Constructor of StatementCache
+     * @param maxSize maximum number of cached statements, 0 to disable the cache
+     */
+    public StatementCache(final int maxSize) {
+        this.maxSize = Math.max(0, maxSize);
+        this.evictions = 0;
+        this.statements = new LinkedHashMap<String, PreparedStatement>(16, 0.75F, true) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<String, PreparedStatement> eldest) {
+                if(size() <= StatementCache.this.maxSize)
+                    return false;
+
+                evictions++;
+                close(eldest.getValue());
+                return true;
+            }
+        };
+    }
+
+    /**
+     * Get the maximum number of cached statements
+     * @return maximum number of cached statements
+     */
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Check if the cache is enabled
+     * @return true if enabled, false otherwise
+     */
+    public boolean isEnabled() {
+        return maxSize > 0;
+    }
+
+    /**
+     * Get the number of cached statements
+     * @return number of cached statements
+     */
+    public int size() {
+        return statements.size();
+    }
+
+    /**
+     * Get the number of statements evicted from the cache
+     * @return number of evicted statements
+     */
+    public long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * Get a cached statement
+     * @param sql sql of the statement
+     * @return cached statement, null if not cached
+     */
+    public PreparedStatement get(final String sql) {
+        return statements.get(sql);
+    }
+
+    /**
+     * Add a statement to the cache, evicting the least recently used one if needed
+     * @param sql sql of the statement
+     * @param statement statement to be cached
+     */
+    public void put(final String sql, final PreparedStatement statement) {
+        if(!isEnabled())
+            return;
+
+        final PreparedStatement previous = statements.put(sql, statement);
+        if(previous != null && previous != statement)
+            close(previous);
+    }
+
+    /**
+     * Remove and close a cached statement
+     * @param sql sql of the statement
+     */
+    public void invalidate(final String sql) {
+        close(statements.remove(sql));
+    }
+
+    /**
+     * Close and remove all the cached statements
+     */
+    public void clear() {
+        final Iterator<PreparedStatement> iterator = statements.values().iterator();
+        while(iterator.hasNext()) {
+            close(iterator.next());
+            iterator.remove();
+        }
+    }
+
+    /**
+     * Close a statement
+     * @param statement statement to be closed
+     */
+    private static void close(final PreparedStatement statement) {
+        try {
+            if(statement != null)
+                statement.close();
+        } catch (final SQLException e) {
+            e.printStackTrace();
+        }
+    }
+}
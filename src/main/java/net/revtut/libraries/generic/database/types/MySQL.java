@@ -2,6 +2,11 @@ package net.revtut.libraries.generic.database.types;
 
 import net.revtut.libraries.generic.database.Database;
 
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+
 /**
  * MySQL Database
  */
@@ -16,6 +21,62 @@ public class MySQL extends Database {
      * @param password password of the MySQL
      */
     public MySQL(final String hostname, final int port, final String database, final String username, final String password) {
-        super("com.mysql.jdbc.Driver", "jdbc:mysql://" + hostname + ":" + port + "/" + database, username, password);
+        // Rewrite batches into multi-row statements so they take a single round-trip
+        super("com.mysql.jdbc.Driver", "jdbc:mysql://" + hostname + ":" + port + "/" + database + "?rewriteBatchedStatements=true", username, password);
+    }
+
+    /**
+     * Configure a statement to fetch its rows from the server as they are consumed.
+     * The MySQL driver only streams row by row when the fetch size is Integer.MIN_VALUE.
+     * @param connection connection of the statement
+     * @param statement statement to be configured
+     * @param fetchSize number of rows fetched per round-trip
+     * @throws SQLException if the statement could not be configured
+     */
+    @Override
+    protected void configureStreaming(final Connection connection, final PreparedStatement statement, final int fetchSize) throws SQLException {
+        statement.setFetchSize(Integer.MIN_VALUE);
+    }
+
+    /**
+     * Build the sql of a upsert using ON DUPLICATE KEY UPDATE.
+     * Its parameters are the values of the keys followed by the values of the columns.
+     * @param tableName name of the table to execute the upsert
+     * @param keys columns of the unique key of the table
+     * @param columns columns to set the values
+     * @param additive true to add the values to the existing ones, false to replace them
+     * @return sql of the upsert
+     */
+    @Override
+    public String upsertSql(final String tableName, final List<String> keys, final List<String> columns, final boolean additive) {
+        final String insertion = insertionSql(tableName, concat(keys, columns), 1);
+        final StringBuilder sql = new StringBuilder(insertion.substring(0, insertion.length() - 1)).append(" ON DUPLICATE KEY UPDATE ");
+
+        // Without columns there is nothing to update, so the key is assigned to itself
+        final List<String> updated = columns.isEmpty() ? keys.subList(0, 1) : columns;
+        for(int index = 0; index < updated.size(); index++) {
+            if(index > 0)
+                sql.append(", ");
+            final String column = updated.get(index);
+            sql.append(column).append(" = ");
+            if(columns.isEmpty())
+                sql.append(column);
+            else if(additive)
+                sql.append(column).append(" + VALUES(").append(column).append(")");
+            else
+                sql.append("VALUES(").append(column).append(")");
+        }
+        return sql.append(";").toString();
+    }
+
+    /**
+     * Check if a transaction failed because of a deadlock or serialization failure, so it can be retried.
+     * Also retries lock wait timeouts (1205) and deadlocks (1213) reported with a generic SQL state.
+     * @param exception exception thrown by the transaction
+     * @return true if it can be retried, false otherwise
+     */
+    @Override
+    protected boolean isRetryable(final SQLException exception) {
+        return super.isRetryable(exception) || exception.getErrorCode() == 1205 || exception.getErrorCode() == 1213;
     }
 }
@@ -2,6 +2,9 @@ package net.revtut.libraries.generic.database.types;
 
 import net.revtut.libraries.generic.database.Database;
 
+import java.sql.SQLException;
+import java.util.List;
+
 /**
  * OracleSQL Database
  */
@@ -18,4 +21,69 @@ public class OracleSQL extends Database {
     public OracleSQL(final String hostname, final int port, final String database, final String username, final String password) {
         super("oracle.jdbc.driver.OracleDriver", "jdbc:oracle:thin:@" + hostname + ":" + port + ":" + database, username, password);
     }
+
+    /**
+     * Build the sql of a insertion of several rows using INSERT ALL, Oracle has no multi-row VALUES.
+     * Its parameters are the values of each row one after the other.
+     * @param tableName name of the table to execute the insertion
+     * @param columns columns to set the values
+     * @param rows number of rows inserted by the statement
+     * @return sql of the insertion
+     */
+    @Override
+    public String insertionSql(final String tableName, final List<String> columns, final int rows) {
+        if(rows <= 0)
+            throw new IllegalArgumentException("Number of rows must be positive.");
+
+        final StringBuilder sql = new StringBuilder("INSERT ALL");
+        for(int row = 0; row < rows; row++) {
+            sql.append(" INTO ").append(tableName).append(" (");
+            appendColumns(sql, columns, "", "");
+            sql.append(") VALUES (");
+            appendPlaceholders(sql, columns.size());
+            sql.append(")");
+        }
+
+        // Oracle rejects the statement terminator over JDBC
+        return sql.append(" SELECT 1 FROM DUAL").toString();
+    }
+
+    /**
+     * Build the sql of a upsert using MERGE selecting the row from DUAL.
+     * Its parameters are the values of the keys followed by the values of the columns.
+     * @param tableName name of the table to execute the upsert
+     * @param keys columns of the unique key of the table
+     * @param columns columns to set the values
+     * @param additive true to add the values to the existing ones, false to replace them
+     * @return sql of the upsert
+     */
+    @Override
+    public String upsertSql(final String tableName, final List<String> keys, final List<String> columns, final boolean additive) {
+        final List<String> allColumns = concat(keys, columns);
+        final StringBuilder sql = new StringBuilder("MERGE INTO ").append(tableName).append(" D USING (SELECT ");
+        appendColumns(sql, allColumns, "? ", "");
+        sql.append(" FROM DUAL) S ON (");
+        appendConditions(sql, keys);
+        sql.append(")");
+        if(!columns.isEmpty()) {
+            sql.append(" WHEN MATCHED THEN UPDATE SET ");
+            appendAssignments(sql, columns, "D.", additive ? "D." : null);
+        }
+        sql.append(" WHEN NOT MATCHED THEN INSERT (");
+        appendColumns(sql, allColumns, "", "");
+        sql.append(") VALUES (");
+        appendColumns(sql, allColumns, "S.", "");
+        return sql.append(")").toString();
+    }
+
+    /**
+     * Check if a transaction failed because of a deadlock or serialization failure, so it can be retried.
+     * Oracle reports deadlocks (ORA-00060) and serialization failures (ORA-08177) outside SQL state class 40.
+     * @param exception exception thrown by the transaction
+     * @return true if it can be retried, false otherwise
+     */
+    @Override
+    protected boolean isRetryable(final SQLException exception) {
+        return super.isRetryable(exception) || exception.getErrorCode() == 60 || exception.getErrorCode() == 8177;
+    }
 }
@@ -2,6 +2,11 @@ package net.revtut.libraries.generic.database.types;
 
 import net.revtut.libraries.generic.database.Database;
 
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+
 /**
  * PostgreSQL Database
  */
@@ -18,4 +23,53 @@ public class PostgreSQL extends Database {
     public PostgreSQL(final String hostname, final int port, final String database, final String username, final String password) {
         super("org.postgresql.Driver", "jdbc:postgresql://" + hostname + ":" + port + "/" + database, username, password);
     }
+
+    /**
+     * Configure a statement to fetch its rows from the server as they are consumed.
+     * The PostgreSQL driver only uses a cursor inside a transaction.
+     * @param connection connection of the statement
+     * @param statement statement to be configured
+     * @param fetchSize number of rows fetched per round-trip
+     * @throws SQLException if the statement could not be configured
+     */
+    @Override
+    protected void configureStreaming(final Connection connection, final PreparedStatement statement, final int fetchSize) throws SQLException {
+        connection.setAutoCommit(false);
+        statement.setFetchSize(fetchSize);
+    }
+
+    /**
+     * Build the sql of a upsert using ON CONFLICT.
+     * Its parameters are the values of the keys followed by the values of the columns.
+     * @param tableName name of the table to execute the upsert
+     * @param keys columns of the unique key of the table
+     * @param columns columns to set the values
+     * @param additive true to add the values to the existing ones, false to replace them
+     * @return sql of the upsert
+     */
+    @Override
+    public String upsertSql(final String tableName, final List<String> keys, final List<String> columns, final boolean additive) {
+        final List<String> allColumns = concat(keys, columns);
+        final StringBuilder sql = new StringBuilder("INSERT INTO ").append(tableName).append(" AS D (");
+        appendColumns(sql, allColumns, "", "");
+        sql.append(") VALUES (");
+        appendPlaceholders(sql, allColumns.size());
+        sql.append(") ON CONFLICT (");
+        appendColumns(sql, keys, "", "");
+        sql.append(")");
+        if(columns.isEmpty())
+            return sql.append(" DO NOTHING;").toString();
+
+        sql.append(" DO UPDATE SET ");
+        for(int index = 0; index < columns.size(); index++) {
+            if(index > 0)
+                sql.append(", ");
+            final String column = columns.get(index);
+            sql.append(column).append(" = ");
+            if(additive)
+                sql.append("D.").append(column).append(" + ");
+            sql.append("EXCLUDED.").append(column);
+        }
+        return sql.append(";").toString();
+    }
 }
@@ -0,0 +1,107 @@
+package net.revtut.libraries.generic.database.utils;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Result Set Iterator.
+ * Lazily maps the rows of a result set, releasing its resources once exhausted or closed.
+ * @param <T> type of the mapped rows
+ */
+public class ResultSetIterator<T> implements Iterator<T>, AutoCloseable {
+
+    /**
+     * Result set being iterated
+     */
+    private final ResultSet resultSet;
+
+    /**
+     * Mapper of the rows
+     */
+    private final RowMapper<T> mapper;
+
+    /**
+     * Task that releases the resources of the result set
+     */
+    private final Runnable onClose;
+
+    /**
+     * Flag to check if the result set is positioned on a row that was not returned yet
+     */
+    private boolean hasRow;
+
+    /**
+     * Flag to check if the iterator was closed
+     */
+    private boolean closed;
+
+    /**
+     * Constructor of ResultSetIterator
+     * @param resultSet result set to be iterated
+     * @param mapper mapper of the rows
+     * @param onClose task that releases the resources of the result set
+     */
+    public ResultSetIterator(final ResultSet resultSet, final RowMapper<T> mapper, final Runnable onClose) {
+        this.resultSet = resultSet;
+        this.mapper = mapper;
+        this.onClose = onClose;
+        this.hasRow = false;
+        this.closed = false;
+    }
+
+    /**
+     * Check if there are more rows
+     * @return true if there are more rows, false otherwise
+     */
+    @Override
+    public boolean hasNext() {
+        if(hasRow)
+            return true;
+        if(closed)
+            return false;
+
+        try {
+            hasRow = resultSet.next();
+        } catch (final SQLException e) {
+            close();
+            throw new IllegalStateException("Error while reading the result set.", e);
+        }
+
+        if(!hasRow)
+            close();
+        return hasRow;
+    }
+
+    /**
+     * Get the next mapped row
+     * @return next mapped row
+     */
+    @Override
+    public T next() {
+        if(!hasNext())
+            throw new NoSuchElementException();
+
+        hasRow = false;
+        try {
+            return mapper.map(resultSet);
+        } catch (final SQLException e) {
+            close();
+            throw new IllegalStateException("Error while mapping a row of the result set.", e);
+        }
+    }
+
+    /**
+     * Release the resources of the result set
+     */
+    @Override
+    public void close() {
+        if(closed)
+            return;
+
+        closed = true;
+        hasRow = false;
+        onClose.run();
+    }
+}
@@ -0,0 +1,21 @@
+package net.revtut.libraries.generic.database.utils;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Row Mapper.
+ * Converts the current row of a result set into a object.
+ * @param <T> type of the mapped object
+ */
+@FunctionalInterface
+public interface RowMapper<T> {
+
+    /**
+     * Map the current row of a result set
+     * @param resultSet result set positioned on the row to be mapped
+     * @return mapped object
+     * @throws SQLException if a column could not be read
+     */
+    T map(ResultSet resultSet) throws SQLException;
+}
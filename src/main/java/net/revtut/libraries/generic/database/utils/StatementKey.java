@@ -0,0 +1,111 @@
+package net.revtut.libraries.generic.database.utils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Statement Key.
+ * Shape of a generated statement (type, table, columns and where columns) used to look up its compiled sql.
+ */
+public class StatementKey {
+
+    /**
+     * Type of the statement
+     */
+    private final Statements type;
+
+    /**
+     * Class of the database whose dialect generated the statement, null if it is the same for every dialect
+     */
+    private final Class<?> dialect;
+
+    /**
+     * Name of the table
+     */
+    private final String tableName;
+
+    /**
+     * Columns of the statement
+     */
+    private final List<String> columns;
+
+    /**
+     * Columns of the "Where" condition
+     */
+    private final List<String> where;
+
+    /**
+     * Variant of the statement, such as the number of rows of a insertion
+     */
+    private final int variant;
+
+    /**
+     * Hash of the key
+     */
+    private final int hash;
+
+    /**
+     * Constructor of StatementKey. The lists are referenced, not copied, use {@link #copy()} before storing it.
+     * @param type type of the statement
+     * @param tableName name of the table
+     * @param columns columns of the statement
+     * @param where columns of the "Where" condition
+     */
+    public StatementKey(final Statements type, final String tableName, final List<String> columns, final List<String> where) {
+        this(type, null, tableName, columns, where, 0);
+    }
+
+    /**
+     * Constructor of StatementKey. The lists are referenced, not copied, use {@link #copy()} before storing it.
+     * @param type type of the statement
+     * @param dialect class of the database whose dialect generated the statement
+     * @param tableName name of the table
+     * @param columns columns of the statement
+     * @param where columns of the "Where" condition
+     * @param variant variant of the statement
+     */
+    public StatementKey(final Statements type, final Class<?> dialect, final String tableName, final List<String> columns, final List<String> where, final int variant) {
+        this.type = type;
+        this.dialect = dialect;
+        this.tableName = tableName;
+        this.columns = columns == null ? Collections.emptyList() : columns;
+        this.where = where == null ? Collections.emptyList() : where;
+        this.variant = variant;
+        this.hash = ((((type.hashCode() * 31 + Objects.hashCode(dialect)) * 31 + tableName.hashCode()) * 31 + this.columns.hashCode()) * 31 + this.where.hashCode()) * 31 + variant;
+    }
+
+    /**
+     * Get a key with its own copy of the columns, safe to be stored
+     * @return copy of the key
+     */
+    public StatementKey copy() {
+        return new StatementKey(type, dialect, tableName, new ArrayList<>(columns), new ArrayList<>(where), variant);
+    }
+
+    /**
+     * Get the hash of the key
+     * @return hash of the key
+     */
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    /**
+     * Check if two keys are equal
+     * @param obj key object to be compared
+     * @return true if they are equal, false otherwise
+     */
+    @Override
+    public boolean equals(final Object obj) {
+        if(this == obj)
+            return true;
+        if(!(obj instanceof StatementKey))
+            return false;
+
+        final StatementKey key = (StatementKey) obj;
+        return hash == key.hash && type == key.type && dialect == key.dialect && variant == key.variant && tableName.equals(key.tableName) && columns.equals(key.columns) && where.equals(key.where);
+    }
+}
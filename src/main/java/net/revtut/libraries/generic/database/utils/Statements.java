@@ -202,5 +202,10 @@ public enum Statements {
     /**
      * Vacuum statement
      */
-    VACUUM
+    VACUUM,
+
+    /**
+     * Merge statement
+     */
+    MERGE
 }
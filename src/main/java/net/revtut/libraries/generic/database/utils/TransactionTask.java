@@ -0,0 +1,22 @@
+package net.revtut.libraries.generic.database.utils;
+
+import net.revtut.libraries.generic.database.Transaction;
+
+import java.sql.SQLException;
+
+/**
+ * Transaction Task.
+ * Work run inside a transaction, it may be run again if the transaction is retried.
+ * @param <T> type of the result
+ */
+@FunctionalInterface
+public interface TransactionTask<T> {
+
+    /**
+     * Run the work inside a transaction
+     * @param transaction transaction where the statements are executed
+     * @return result of the work
+     * @throws SQLException if a statement failed, rolling back the transaction
+     */
+    T run(final Transaction transaction) throws SQLException;
+}
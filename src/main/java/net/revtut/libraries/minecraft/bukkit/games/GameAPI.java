@@ -4,16 +4,25 @@ import net.revtut.libraries.Libraries;
 import net.revtut.libraries.minecraft.bukkit.games.arena.Arena;
 import net.revtut.libraries.minecraft.bukkit.games.arena.ArenaPreference;
 import net.revtut.libraries.minecraft.bukkit.games.arena.session.GameState;
+import net.revtut.libraries.minecraft.bukkit.games.arena.session.SessionScheduler;
 import net.revtut.libraries.minecraft.bukkit.games.player.GamePlayer;
+import net.revtut.libraries.minecraft.bukkit.games.player.MoveSampler;
+import net.revtut.libraries.minecraft.bukkit.games.player.PlayerRegistry;
 import net.revtut.libraries.minecraft.bukkit.games.player.PlayerState;
+import net.revtut.libraries.minecraft.bukkit.games.player.VisibilityManager;
 import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
 import org.bukkit.plugin.Plugin;
 
 import java.io.File;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Game API.
@@ -26,31 +35,73 @@ public class GameAPI {
     private static GameAPI instance;
 
     /**
-     * List with all players
+     * Registry with all players
      */
-    private final List<GamePlayer> players;
+    private final PlayerRegistry players;
 
     /**
      * List with all game controllers
      */
     private final List<GameController> games;
 
+    /**
+     * Arena of each player, kept up to date by the arenas and teams
+     */
+    private final Map<UUID, Arena> playerArenas;
+
+    /**
+     * Arena of each world, keyed by the world name in lower case
+     */
+    private final Map<String, Arena> worldArenas;
+
+    /**
+     * Sampler of the movements that emit the walk and jump events
+     */
+    private final MoveSampler moveSampler;
+
+    /**
+     * Number of players moved per tick when redistributing a arena
+     */
+    public static final int REDISTRIBUTION_MOVES_PER_TICK = 4;
+
+    /**
+     * Arenas whose players are being redistributed
+     */
+    private final Set<Arena> redistributing;
+
+    /**
+     * Scheduler ticking the sessions of the arenas
+     */
+    private final SessionScheduler sessionScheduler;
+
+    /**
+     * Manager of who sees whom
+     */
+    private final VisibilityManager visibilityManager;
+
+    /**
+     * Cloner of the arena worlds
+     */
+    private final WorldCloner worldCloner;
+
     /**
      * Constructor of GameAPI
      */
     private GameAPI() {
-        this.players = new ArrayList<>();
+        this.players = new PlayerRegistry();
         this.games = new ArrayList<>();
+        this.playerArenas = new ConcurrentHashMap<>();
+        this.worldArenas = new ConcurrentHashMap<>();
+        this.moveSampler = new MoveSampler();
+        this.redistributing = new HashSet<>();
+        this.visibilityManager = new VisibilityManager(Libraries.getInstance());
+        this.worldCloner = new WorldCloner();
 
         Bukkit.getPluginManager().registerEvents(new GameListener(this), Libraries.getInstance());
 
         // Run the tick task
-        Bukkit.getScheduler().runTaskTimer(Libraries.getInstance(), () -> {
-            for(GameController gameController : games)
-                new ArrayList<>(gameController.getArenas()).stream()
-                        .filter(arena -> arena.getSession() != null)
-                        .forEach(arena -> arena.getSession().tick());
-        }, 20L, 20L);
+        this.sessionScheduler = new SessionScheduler(Libraries.getInstance());
+        sessionScheduler.start();
     }
 
     /**
@@ -129,23 +180,60 @@ public class GameAPI {
     }
 
     /**
-     * Get all the players on the server
+     * Get all the players on the server. The list is a snapshot that can not be modified.
      * @return players on the server
      */
     public List<GamePlayer> getPlayers() {
+        return players.getPlayers();
+    }
+
+    /**
+     * Get the registry of the players, with its size and churn metrics
+     * @return registry of the players
+     */
+    public PlayerRegistry getPlayerRegistry() {
         return players;
     }
 
+    /**
+     * Get the sampler of the movements that emit the walk and jump events
+     * @return sampler of the movements
+     */
+    public MoveSampler getMoveSampler() {
+        return moveSampler;
+    }
+
+    /**
+     * Get the manager of who sees whom
+     * @return visibility manager
+     */
+    public VisibilityManager getVisibilityManager() {
+        return visibilityManager;
+    }
+
+    /**
+     * Get the cloner of the arena worlds
+     * @return world cloner
+     */
+    public WorldCloner getWorldCloner() {
+        return worldCloner;
+    }
+
+    /**
+     * Get the scheduler ticking the sessions of the arenas
+     * @return scheduler of the sessions
+     */
+    public SessionScheduler getSessionScheduler() {
+        return sessionScheduler;
+    }
+
     /**
      * Get the player data of a given player
      * @param uuid uuid of the player to get the player data
      * @return player data of the player
      */
     public GamePlayer getPlayer(final UUID uuid) {
-        for(final GamePlayer player : players)
-            if(player.getUuid().equals(uuid))
-                return player;
-        return null;
+        return players.get(uuid);
     }
 
     /**
@@ -154,14 +242,44 @@ public class GameAPI {
      * @return arena of the player
      */
     public Arena getPlayerArena(final UUID uuid) {
-        Arena arena = null;
-        for(final GameController gameController : games) {
-            arena = gameController.getPlayerArena(uuid);
-            if(arena != null)
-                break;
-        }
+        return playerArenas.get(uuid);
+    }
+
+    /**
+     * Set the arena of a given player on the index
+     * @param uuid uuid of the player
+     * @param arena arena of the player
+     */
+    public void setPlayerArena(final UUID uuid, final Arena arena) {
+        if(arena == null)
+            playerArenas.remove(uuid);
+        else
+            playerArenas.put(uuid, arena);
+    }
+
+    /**
+     * Remove a given player from the index
+     * @param uuid uuid of the player
+     */
+    public void removePlayerArena(final UUID uuid) {
+        playerArenas.remove(uuid);
+    }
+
+    /**
+     * Remove a given player from the index if it still points to the given arena
+     * @param uuid uuid of the player
+     * @param arena arena that the player left
+     */
+    public void removePlayerArena(final UUID uuid, final Arena arena) {
+        playerArenas.remove(uuid, arena);
+    }
 
-        return arena;
+    /**
+     * Remove all the players of a arena from the index
+     * @param arena arena that was removed
+     */
+    public void removeArenaPlayers(final Arena arena) {
+        playerArenas.values().removeIf(target -> target == arena);
     }
 
     /**
@@ -170,30 +288,41 @@ public class GameAPI {
      * @return arena with that world name
      */
     public Arena getArena(final String worldName) {
-        Arena arena = null;
-        for(final GameController gameController : games) {
-            arena = gameController.getArena(worldName);
-            if(arena != null)
-                break;
-        }
+        return worldArenas.get(worldName.toLowerCase(Locale.ROOT));
+    }
 
-        return arena;
+    /**
+     * Add the world of a arena to the index
+     * @param worldName name of the world
+     * @param arena arena of the world
+     */
+    public void addArenaWorld(final String worldName, final Arena arena) {
+        worldArenas.put(worldName.toLowerCase(Locale.ROOT), arena);
     }
 
     /**
-     * Add a player to the list
+     * Remove the world of a arena from the index if it still points to that arena
+     * @param worldName name of the world
+     * @param arena arena of the world
+     */
+    public void removeArenaWorld(final String worldName, final Arena arena) {
+        worldArenas.remove(worldName.toLowerCase(Locale.ROOT), arena);
+    }
+
+    /**
+     * Add a player to the registry
      * @param player player to be added
      */
     public void addPlayer(final GamePlayer player) {
-        players.add(player);
+        players.register(player);
     }
 
     /**
-     * Remove a player from the list
+     * Remove a player from the registry
      * @param player player to be removed
      */
     public void removePlayer(final GamePlayer player) {
-        players.remove(player);
+        players.unregister(player);
     }
 
     /**
@@ -201,10 +330,7 @@ public class GameAPI {
      * @param player player to execute that action
      */
     public void hideServer(final Player player) {
-        for(final Player target : Bukkit.getOnlinePlayers()) {
-            target.hidePlayer(player);
-            player.hidePlayer(target);
-        }
+        visibilityManager.hideServer(player);
     }
 
     /**
@@ -212,12 +338,7 @@ public class GameAPI {
      * @param player player to join a random game
      */
     public void joinRandomGame(final GamePlayer player) {
-        // Hide every player
-        final Player bukkitPlayer = Bukkit.getPlayer(player.getUuid());
-        if(bukkitPlayer != null)
-            hideServer(bukkitPlayer);
-
-        // Join random game
+        // Join random game, the visibility manager hides the rest of the server
         final GameController gameController = getRandomGame();
         joinGame(player, gameController);
 
@@ -239,9 +360,68 @@ public class GameAPI {
             return;
         }
 
-        // Create more arenas if needed
-        if(gameController.getAvailableArenas().size() <= 1)
+        // Create more arenas if needed, the warm pool refills on its own
+        if(gameController.needsArena())
+            gameController.createArena(arena.getType());
+    }
+
+    /**
+     * Join a wave of players to a game in one call, filling the arenas with more players first
+     * @param players players to join the game
+     * @param gameController game controller of the game
+     */
+    public void joinGame(final List<GamePlayer> players, final GameController gameController) {
+        // Plan the whole wave at once instead of looking up a arena per player
+        final List<Arena> plan = gameController.getMatchmaker().plan(ArenaPreference.MORE_PLAYERS, players.size());
+
+        Arena joined = null;
+        for(int index = 0; index < players.size(); index++) {
+            final GamePlayer player = players.get(index);
+            final Arena arena = index < plan.size() ? plan.get(index) : null;
+            if(arena != null && arena.join(player)) {
+                joined = arena;
+                continue;
+            }
+
+            // No room planned or not allowed to join the arena
+            final Player bukkitPlayer = Bukkit.getPlayer(player.getUuid());
+            if(bukkitPlayer != null)
+                Libraries.getInstance().getNetwork().connectPlayer(bukkitPlayer, "hub");
+        }
+
+        // Create more arenas if needed once for the whole wave, the warm pool refills on its own
+        if(joined != null && gameController.needsArena())
+            gameController.createArena(joined.getType());
+    }
+
+    /**
+     * Join a party to a game, keeping all its players on the same arena.
+     * If no arena has room for the whole party its players join separately.
+     * @param party players of the party
+     * @param gameController game controller of the game
+     * @return true if the party joined the same arena, false otherwise
+     */
+    public boolean joinParty(final List<GamePlayer> party, final GameController gameController) {
+        final Arena arena = gameController.getAvailableArena(ArenaPreference.MORE_PLAYERS, party.size());
+        if(arena == null) {
+            joinGame(party, gameController);
+            return false;
+        }
+
+        boolean together = true;
+        for(final GamePlayer player : party) {
+            if(arena.join(player))
+                continue;
+
+            together = false;
+            joinGame(player, gameController);
+        }
+
+        // Create more arenas if needed, the warm pool refills on its own
+        if(gameController.needsArena())
             gameController.createArena(arena.getType());
+
+        return together;
     }
 
     /**
@@ -254,23 +434,80 @@ public class GameAPI {
 
         // Delete arena if needed and join randomly all the remaining players
         if(arena.getSession() != null && arena.getSession().getState() != GameState.LOBBY) {
-            if(arena.getPlayers(PlayerState.ALIVE).size() <= 1) {
-                for(final GamePlayer target : new ArrayList<>(arena.getAllPlayers())) {
-                    if(target == player)
-                        continue;
-                    final Player targetBukkitPlayer = Bukkit.getPlayer(target.getUuid());
-                    if(targetBukkitPlayer == null)
-                        continue;
-                    arena.leave(target);
-
-                    // Join game
-                    joinRandomGame(target);
-                }
-                final GameController arenaController = GameAPI.getInstance().getGameController(arena);
-                if(arenaController == null)
-                    return;
-                arenaController.removeArena(arena);
-            }
+            if(arena.getSize(PlayerState.ALIVE) <= 1)
+                redistribute(arena, player);
         }
     }
+
+    /**
+     * Move all the players of a arena to other arenas and remove it. The destinations are planned at once
+     * and the moves are spread over ticks, each move only changing the visibility against both arenas.
+     * @param arena arena to be redistributed
+     * @param leaving player that left the arena, not moved
+     */
+    public void redistribute(final Arena arena, final GamePlayer leaving) {
+        if(!redistributing.add(arena))
+            return;
+
+        // Players to be moved
+        final List<GamePlayer> movers = new ArrayList<>();
+        for(final GamePlayer target : arena.getAllPlayers()) {
+            if(target != leaving && Bukkit.getPlayer(target.getUuid()) != null)
+                movers.add(target);
+        }
+
+        // Plan the destinations
+        final GameController gameController = getGameController(arena);
+        final List<Arena> destinations = gameController == null ? new ArrayList<>() : gameController.getMatchmaker().plan(ArenaPreference.MORE_PLAYERS, movers.size());
+
+        // Spread the moves over ticks
+        final int batches = (movers.size() + REDISTRIBUTION_MOVES_PER_TICK - 1) / REDISTRIBUTION_MOVES_PER_TICK;
+        for(int batch = 0; batch < batches; batch++) {
+            final int start = batch * REDISTRIBUTION_MOVES_PER_TICK;
+            final int end = Math.min(start + REDISTRIBUTION_MOVES_PER_TICK, movers.size());
+            final Runnable moves = () -> {
+                for(int index = start; index < end; index++)
+                    move(movers.get(index), arena, index < destinations.size() ? destinations.get(index) : null);
+            };
+
+            if(batch == 0)
+                moves.run();
+            else
+                Bukkit.getScheduler().runTaskLater(Libraries.getInstance(), moves, batch);
+        }
+
+        // Remove the arena after the last move
+        final Runnable removal = () -> {
+            redistributing.remove(arena);
+            if(gameController == null)
+                return;
+            gameController.removeArena(arena);
+
+            // Create more arenas if needed, the warm pool refills on its own
+            if(gameController.needsArena())
+                gameController.createArena(arena.getType());
+        };
+        if(batches <= 1)
+            removal.run();
+        else
+            Bukkit.getScheduler().runTaskLater(Libraries.getInstance(), removal, batches - 1);
+    }
+
+    /**
+     * Move a player of a arena being redistributed to its planned destination
+     * @param player player to be moved
+     * @param arena arena being redistributed
+     * @param destination planned destination, null if there was no room
+     */
+    private void move(final GamePlayer player, final Arena arena, final Arena destination) {
+        // Player may have left in the meantime
+        if(!arena.containsPlayer(player.getUuid()) || Bukkit.getPlayer(player.getUuid()) == null)
+            return;
+
+        arena.leave(player);
+        if(destination != null && destination.join(player))
+            return;
+
+        joinRandomGame(player);
+    }
 }
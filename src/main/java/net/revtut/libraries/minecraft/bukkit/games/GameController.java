@@ -2,6 +2,7 @@ package net.revtut.libraries.minecraft.bukkit.games;
 
 import net.revtut.libraries.generic.util.Files;
 import net.revtut.libraries.minecraft.bukkit.games.arena.Arena;
+import net.revtut.libraries.minecraft.bukkit.games.arena.ArenaMatchmaker;
 import net.revtut.libraries.minecraft.bukkit.games.arena.ArenaPreference;
 import net.revtut.libraries.minecraft.bukkit.games.arena.types.ArenaSolo;
 import net.revtut.libraries.minecraft.bukkit.games.arena.types.ArenaTeam;
@@ -12,11 +13,16 @@ import net.revtut.libraries.minecraft.bukkit.utils.Worlds;
 import org.bukkit.Bukkit;
 import org.bukkit.World;
 import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
 
 import java.io.File;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.logging.Level;
 
 /**
  * Controller of game per plugin
@@ -38,6 +44,41 @@ public class GameController {
      */
     private final List<Arena> arenas;
 
+    /**
+     * Matchmaker of the joinable arenas
+     */
+    private final ArenaMatchmaker matchmaker;
+
+    /**
+     * Arenas whose world is being cloned, with the future of the world
+     */
+    private final Map<Arena, CompletableFuture<World>> loadingArenas;
+
+    /**
+     * Interval in ticks between the maintenances of the warm pool
+     */
+    public static final long WARM_POOL_INTERVAL = 20L;
+
+    /**
+     * Type of the arenas of the warm pool
+     */
+    private ArenaType warmPoolType;
+
+    /**
+     * Number of warm arenas kept ahead of demand, and kept under low population
+     */
+    private int warmPoolSize, warmPoolMinimum;
+
+    /**
+     * Number of online players under which the warm pool shrinks to its minimum
+     */
+    private int lowPopulation;
+
+    /**
+     * Task maintaining the warm pool, null if it is stopped
+     */
+    private BukkitTask warmPoolTask;
+
     /**
      * Constructor of GameController
      * @param plugin plugin owner of the controller
@@ -47,6 +88,13 @@ public class GameController {
         this.plugin = plugin;
         this.worldsFolder = worldsFolder;
         this.arenas = new ArrayList<>();
+        this.matchmaker = new ArenaMatchmaker();
+        this.loadingArenas = new HashMap<>();
+        this.warmPoolType = null;
+        this.warmPoolSize = 0;
+        this.warmPoolMinimum = 0;
+        this.lowPopulation = 0;
+        this.warmPoolTask = null;
     }
 
     /**
@@ -79,14 +127,8 @@ public class GameController {
      * @return arena with that world name
      */
     public Arena getArena(final String worldName) {
-        for(final Arena arena : arenas) {
-            if(arena.getWorld() == null)
-                continue;
-
-            if (arena.getWorld().getName().equalsIgnoreCase(worldName))
-                return arena;
-        }
-        return null;
+        final Arena arena = GameAPI.getInstance().getArena(worldName);
+        return arena != null && hasArena(arena) ? arena : null;
     }
 
     /**
@@ -94,26 +136,37 @@ public class GameController {
      * @return online players on the game
      */
     public List<GamePlayer> getOnlinePlayers() {
-        final List<GamePlayer> players = new ArrayList<>();
+        final List<GamePlayer> players = new ArrayList<>(getOnlinePlayersCount());
         for(final Arena arena : arenas)
             players.addAll(arena.getAllPlayers());
         return players;
     }
 
+    /**
+     * Get the number of online players on the game, without copying them
+     * @return number of online players
+     */
+    public int getOnlinePlayersCount() {
+        int count = 0;
+        for(final Arena arena : arenas)
+            count += arena.getSize();
+        return count;
+    }
+
     /**
      * Get a list with all available arenas
-     * @return list with all available arenas
+     * @return list with all available arenas, sorted by number of players
      */
     public List<Arena> getAvailableArenas() {
-        final List<Arena> availableArenas = new ArrayList<>();
-        for(final Arena arena : arenas) {
-            if(!arena.canJoin(null))
-                continue;
-
-            availableArenas.add(arena);
-        }
+        return matchmaker.getArenas();
+    }
 
-        return availableArenas;
+    /**
+     * Get the number of available arenas, without copying them
+     * @return number of available arenas
+     */
+    public int getAvailableArenasCount() {
+        return matchmaker.size();
     }
 
     /**
@@ -122,60 +175,25 @@ public class GameController {
      * @return arena that best suits the preference
      */
     public Arena getAvailableArena(final ArenaPreference preference) {
-        Arena arena = null;
-        int comparator;
-
-        // Initialize comparator variable
-        switch (preference) {
-            case MORE_PLAYERS:
-            case MORE_REAMINING_TIME:
-                comparator = Integer.MIN_VALUE;
-                break;
-            case LESS_PLAYERS:
-            case LESS_REMAINING_TIME:
-                comparator = Integer.MAX_VALUE;
-                break;
-            default:
-                comparator = 0;
-        }
+        return matchmaker.get(preference);
+    }
 
-        // Check all arenas
-        for(final Arena targetArena : arenas) {
-            if(!targetArena.canJoin(null))
-                continue;
-
-            switch (preference) {
-                case MORE_PLAYERS:
-                    if(targetArena.getAllPlayers().size() < comparator)
-                        continue;
-
-                    arena = targetArena;
-                    comparator = targetArena.getAllPlayers().size();
-                    break;
-                case MORE_REAMINING_TIME:
-                    if(targetArena.getSession().getTimer() < comparator)
-                        continue;
-
-                    arena = targetArena;
-                    comparator = targetArena.getSession().getTimer();
-                    break;
-                case LESS_PLAYERS:
-                    if(targetArena.getAllPlayers().size() > comparator)
-                        continue;
-
-                    arena = targetArena;
-                    comparator = targetArena.getAllPlayers().size();
-                case LESS_REMAINING_TIME:
-                    if(targetArena.getSession().getTimer() > comparator)
-                        continue;
-
-                    arena = targetArena;
-                    comparator = targetArena.getSession().getTimer();
-                    break;
-            }
-        }
+    /**
+     * Get the best arena given the preference with room for a number of players, such as a party
+     * @param preference preference for the arena
+     * @param slots number of players that must fit
+     * @return arena that best suits the preference, null if none has room
+     */
+    public Arena getAvailableArena(final ArenaPreference preference, final int slots) {
+        return matchmaker.get(preference, slots);
+    }
 
-        return arena;
+    /**
+     * Get the matchmaker of the arenas
+     * @return matchmaker of the arenas
+     */
+    public ArenaMatchmaker getMatchmaker() {
+        return matchmaker;
     }
 
     /**
@@ -184,10 +202,8 @@ public class GameController {
      * @return arena of the player
      */
     public Arena getPlayerArena(final UUID uuid) {
-        for(final Arena arena : arenas)
-            if(arena.containsPlayer(uuid))
-                return arena;
-        return null;
+        final Arena arena = GameAPI.getInstance().getPlayerArena(uuid);
+        return arena != null && hasArena(arena) ? arena : null;
     }
 
     /**
@@ -200,9 +216,15 @@ public class GameController {
     }
 
     /**
-     * Create a arena
+     * Create a arena. Its world is cloned off the main thread, then the arena load event is called on the main
+     * thread with the loaded world, so its listeners initialize the arena. If the clone fails or the event is
+     * cancelled the arena is removed.
+     * The arena is returned before the event is called, so it is not initialized yet and has no session nor world.
+     * A cancelled event no longer makes this method return null, the arena is removed once the event is called.
+     * The listeners should give {@link ArenaLoadEvent#getWorld()} to the arena instead of loading another world,
+     * the world of the event is dropped if the arena does not take it.
      * @param type type of the arena
-     * @return created arena
+     * @return created arena, still loading, null if the type is unknown
      */
     public Arena createArena(final ArenaType type) {
         final Arena arena;
@@ -218,58 +240,304 @@ public class GameController {
         }
 
         arenas.add(arena);
+        matchmaker.add(arena);
 
-        // Call event
-        final ArenaLoadEvent event = new ArenaLoadEvent(arena);
-        Bukkit.getPluginManager().callEvent(event);
-
-        if(event.isCancelled()) {
-            removeArena(arena);
-            return null;
-        }
+        final CompletableFuture<World> loading = loadRandomWorldAsync(arena.getName() + "_");
+        loadingArenas.put(arena, loading);
+        loading.whenComplete((world, throwable) -> onArenaLoaded(arena, world, throwable));
 
         return arena;
     }
 
+    /**
+     * Get the number of arenas whose world is being cloned
+     * @return number of loading arenas
+     */
+    public int getLoadingArenasCount() {
+        return loadingArenas.size();
+    }
+
+    /**
+     * Check if a arena must be created on demand. The arenas whose world is still being cloned are counted
+     * as available, so the joins during a clone do not start more clones. The warm pool refills on its own.
+     * @return true if a arena must be created, false otherwise
+     */
+    public boolean needsArena() {
+        return !hasWarmPool() && getAvailableArenasCount() + getLoadingArenasCount() <= 1;
+    }
+
     /**
      * Remove a arena
      * @param arena arena to be removed
      */
     public void removeArena(final Arena arena) {
+        if(arena.getWorld() != null)
+            GameAPI.getInstance().removeArenaWorld(arena.getWorld().getName(), arena);
+        if(arena.getSession() != null)
+            GameAPI.getInstance().getSessionScheduler().unregister(arena.getSession());
         arena.close();
         arenas.remove(arena);
+        matchmaker.remove(arena);
+        loadingArenas.remove(arena);
+        GameAPI.getInstance().removeArenaPlayers(arena);
+    }
+
+    /**
+     * Start keeping arenas loaded and in lobby ahead of demand. A single arena is created or removed
+     * on each maintenance, its world being cloned off the main thread, so the pool refills in the background
+     * and worlds are never loaded while a player joins. The arenas are initialized by the listeners of the
+     * arena load event as usual.
+     * @param type type of the arenas
+     * @param size number of warm arenas to keep
+     * @param minimum number of warm arenas to keep under low population
+     * @param lowPopulation number of online players under which the pool shrinks to its minimum
+     */
+    public void startWarmPool(final ArenaType type, final int size, final int minimum, final int lowPopulation) {
+        this.warmPoolType = type;
+        this.warmPoolSize = Math.max(0, size);
+        this.warmPoolMinimum = Math.max(0, Math.min(minimum, size));
+        this.lowPopulation = lowPopulation;
+
+        if(warmPoolTask == null)
+            warmPoolTask = Bukkit.getScheduler().runTaskTimer(plugin, this::maintainWarmPool, 1L, WARM_POOL_INTERVAL);
+    }
+
+    /**
+     * Stop keeping arenas ahead of demand, the warm arenas already loaded are kept
+     */
+    public void stopWarmPool() {
+        if(warmPoolTask != null)
+            warmPoolTask.cancel();
+        this.warmPoolTask = null;
+        this.warmPoolSize = 0;
+        this.warmPoolMinimum = 0;
+    }
+
+    /**
+     * Check if the warm pool is running
+     * @return true if running, false otherwise
+     */
+    public boolean hasWarmPool() {
+        return warmPoolTask != null;
+    }
+
+    /**
+     * Get the number of warm arenas kept ahead of demand
+     * @return size of the warm pool
+     */
+    public int getWarmPoolSize() {
+        return warmPoolSize;
+    }
+
+    /**
+     * Get the number of warm arenas kept under low population
+     * @return minimum size of the warm pool
+     */
+    public int getWarmPoolMinimum() {
+        return warmPoolMinimum;
+    }
+
+    /**
+     * Get the number of warm arenas the pool is aiming for, given the current population
+     * @return target size of the warm pool
+     */
+    public int getWarmPoolTarget() {
+        return getOnlinePlayersCount() < lowPopulation ? warmPoolMinimum : warmPoolSize;
+    }
+
+    /**
+     * Get the number of warm arenas, the available ones plus the ones whose world is still being cloned
+     * @return number of warm arenas
+     */
+    public int getWarmArenasCount() {
+        return getAvailableArenasCount() + loadingArenas.size();
+    }
+
+    /**
+     * Create or remove a single arena to bring the warm pool closer to its target
+     */
+    public void maintainWarmPool() {
+        if(warmPoolType == null)
+            return;
+
+        final int target = getWarmPoolTarget();
+        final int warm = getWarmArenasCount();
+        if(warm < target) {
+            createArena(warmPoolType);
+            return;
+        }
+
+        // Shrink removing a empty arena
+        if(warm > target) {
+            final Arena arena = matchmaker.get(ArenaPreference.LESS_PLAYERS);
+            if(arena != null && arena.getSize() == 0)
+                removeArena(arena);
+        }
     }
 
     /**
      * Load a random world
      * @param prefix prefix of the world name
      * @return loaded world
+     * @deprecated blocks the main thread until the world is cloned, use {@link #loadRandomWorldAsync(String)}
+     * or the world of the arena load event instead
      */
+    @Deprecated
     public World loadRandomWorld(final String prefix) {
-        // Copy world folder
-        final String[] listWorlds = getWorldsFolder().list();
-        if (listWorlds == null)
-            throw new IllegalStateException("List of worlds is null.");
-
-        final int posWorld = (int) (Math.random() * (listWorlds.length - 1));
+        return loadWorld(prefix, getRandomWorldName());
+    }
 
-        return loadWorld(prefix, listWorlds[posWorld]);
+    /**
+     * Load a random world, cloning it off the main thread
+     * @param prefix prefix of the world name
+     * @return future completed on the main thread with the loaded world
+     */
+    public CompletableFuture<World> loadRandomWorldAsync(final String prefix) {
+        return loadWorldAsync(prefix, getRandomWorldName());
     }
 
     /**
-     * Load a world
+     * Load a world, waiting for it to be cloned
      * @param prefix prefix of the world name
      * @param worldName name of the world to be loaded
      * @return loaded world
+     * @throws java.util.concurrent.CompletionException if the world could not be cloned, its files are deleted
+     * @deprecated blocks the main thread until the world is cloned, use {@link #loadWorldAsync(String, String)}
+     * or the world of the arena load event instead
      */
+    @Deprecated
     public World loadWorld(final String prefix, final String worldName) {
-        final String sourcePath = new File(getWorldsFolder() + File.separator + worldName).getAbsolutePath();
         final String mapName = prefix + worldName;
-        final String targetPath = new File(System.getProperty("user.dir") + File.separator + mapName).getAbsolutePath();
+        try {
+            cloneWorld(worldName, mapName).join();
+            return createWorld(mapName);
+        } catch (final RuntimeException e) {
+            discardWorld(mapName);
+            throw e;
+        }
+    }
+
+    /**
+     * Load a world, cloning it off the main thread. The world is only loaded by Bukkit, on the main thread,
+     * once all its files were copied. If the clone or the load fails the files already copied are deleted.
+     * @param prefix prefix of the world name
+     * @param worldName name of the world to be loaded
+     * @return future completed on the main thread with the loaded world
+     */
+    public CompletableFuture<World> loadWorldAsync(final String prefix, final String worldName) {
+        final String mapName = prefix + worldName;
+        final CompletableFuture<World> future = new CompletableFuture<>();
+        cloneWorld(worldName, mapName).whenComplete((folder, throwable) -> Bukkit.getScheduler().runTask(plugin, () -> {
+            if(throwable != null) {
+                discardWorld(mapName);
+                future.completeExceptionally(throwable);
+                return;
+            }
+
+            try {
+                future.complete(createWorld(mapName));
+            } catch (final Exception e) {
+                discardWorld(mapName);
+                future.completeExceptionally(e);
+            }
+        }));
+        return future;
+    }
 
-        Files.copyDirectory(new File(sourcePath), new File(targetPath));
+    /**
+     * Call the arena load event once the world of a arena was loaded, on the main thread
+     * @param arena arena that was loading
+     * @param world loaded world, null if it failed
+     * @param throwable failure of the load, null if it succeeded
+     */
+    private void onArenaLoaded(final Arena arena, final World world, final Throwable throwable) {
+        // Arena removed while loading
+        if(loadingArenas.remove(arena) == null) {
+            if(world != null)
+                dropWorld(world);
+            return;
+        }
 
-        // Load World
+        if(throwable != null) {
+            throwable.printStackTrace();
+            removeArena(arena);
+            return;
+        }
+
+        // Call event
+        final ArenaLoadEvent event = new ArenaLoadEvent(arena, world);
+        Bukkit.getPluginManager().callEvent(event);
+
+        if(event.isCancelled())
+            removeArena(arena);
+
+        // The listeners did not give the world to the arena
+        if(arena.getWorld() != world) {
+            if(!event.isCancelled())
+                Bukkit.getLogger().log(Level.WARNING, "World " + world.getName() + " of the load event of arena " + arena.getName() + " was not used and was dropped, initialize the arena with ArenaLoadEvent#getWorld instead of loading another world.");
+            dropWorld(world);
+        }
+    }
+
+    /**
+     * Unload a world that no arena uses and delete its folder
+     * @param world world to be dropped
+     */
+    private void dropWorld(final World world) {
+        Worlds.unloadWorld(world.getName());
+        Files.removeDirectory(world.getWorldFolder());
+    }
+
+    /**
+     * Unload a world that failed to load, if it was loaded, and delete the files already copied
+     * @param mapName name of the world
+     */
+    private void discardWorld(final String mapName) {
+        Worlds.unloadWorld(mapName);
+        final File folder = getMapFolder(mapName);
+        if(folder.exists())
+            Files.removeDirectory(folder);
+    }
+
+    /**
+     * Get the name of a random world of the worlds folder
+     * @return name of the world
+     */
+    private String getRandomWorldName() {
+        final String[] listWorlds = getWorldsFolder().list();
+        if (listWorlds == null)
+            throw new IllegalStateException("List of worlds is null.");
+
+        final int posWorld = (int) (Math.random() * (listWorlds.length - 1));
+        return listWorlds[posWorld];
+    }
+
+    /**
+     * Clone a world of the worlds folder into the server folder
+     * @param worldName name of the world to be cloned
+     * @param mapName name of the new world
+     * @return future completed with the folder of the new world
+     */
+    private CompletableFuture<File> cloneWorld(final String worldName, final String mapName) {
+        final File source = new File(getWorldsFolder(), worldName).getAbsoluteFile();
+        return GameAPI.getInstance().getWorldCloner().clone(source, getMapFolder(mapName));
+    }
+
+    /**
+     * Get the folder of a cloned world on the server folder
+     * @param mapName name of the world
+     * @return folder of the world
+     */
+    private File getMapFolder(final String mapName) {
+        return new File(System.getProperty("user.dir"), mapName).getAbsoluteFile();
+    }
+
+    /**
+     * Load a cloned world on Bukkit, must be called on the main thread
+     * @param mapName name of the world
+     * @return loaded world
+     */
+    private World createWorld(final String mapName) {
         final World world = Worlds.loadWorld(mapName);
         if(world == null)
             throw new IllegalStateException("Loaded world is null.");
@@ -7,14 +7,19 @@ import net.revtut.libraries.minecraft.bukkit.games.arena.session.GameState;
 import net.revtut.libraries.minecraft.bukkit.games.arena.types.ArenaSolo;
 import net.revtut.libraries.minecraft.bukkit.games.arena.types.ArenaTeam;
 import net.revtut.libraries.minecraft.bukkit.games.arena.types.ArenaType;
+import net.revtut.libraries.minecraft.bukkit.games.events.GameEvents;
 import net.revtut.libraries.minecraft.bukkit.games.events.arena.ArenaBlockBreakEvent;
 import net.revtut.libraries.minecraft.bukkit.games.events.arena.ArenaBlockPlaceEvent;
 import net.revtut.libraries.minecraft.bukkit.games.events.arena.ArenaBucketEmptyEvent;
 import net.revtut.libraries.minecraft.bukkit.games.events.arena.ArenaBucketFillEvent;
 import net.revtut.libraries.minecraft.bukkit.games.events.player.*;
+import net.revtut.libraries.minecraft.bukkit.games.events.session.SessionFinishEvent;
 import net.revtut.libraries.minecraft.bukkit.games.player.GamePlayer;
+import net.revtut.libraries.minecraft.bukkit.games.player.MoveSample;
 import net.revtut.libraries.minecraft.bukkit.games.player.PlayerState;
 import net.revtut.libraries.minecraft.bukkit.maths.Maths;
+import net.revtut.libraries.minecraft.common.player.ServerPlayer;
+import net.revtut.libraries.minecraft.common.player.StatisticBuffer;
 import net.revtut.libraries.minecraft.common.text.Language;
 import net.revtut.libraries.minecraft.common.text.checks.*;
 import org.bukkit.Bukkit;
@@ -22,6 +27,7 @@ import org.bukkit.Location;
 import org.bukkit.entity.Player;
 import org.bukkit.entity.Projectile;
 import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
 import org.bukkit.event.block.BlockBreakEvent;
 import org.bukkit.event.block.BlockPlaceEvent;
@@ -35,6 +41,7 @@ import org.bukkit.event.weather.WeatherChangeEvent;
 
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 /**
  * Listener of the games api
@@ -87,6 +94,10 @@ public class GameListener implements Listener {
         if(!arena.getFlag(ArenaFlag.BLOCK_BREAK))
             event.setCancelled(true);
 
+        // Skip the event if nobody listens to it
+        if(!GameEvents.hasListeners(ArenaBlockBreakEvent.getHandlerList()))
+            return;
+
         // Call event
         final ArenaBlockBreakEvent arenaBlockBreakEvent = new ArenaBlockBreakEvent(arena, player, event.getBlock());
         Bukkit.getPluginManager().callEvent(arenaBlockBreakEvent);
@@ -115,6 +126,10 @@ public class GameListener implements Listener {
         if(!arena.getFlag(ArenaFlag.BLOCK_PLACE))
             event.setCancelled(true);
 
+        // Skip the event if nobody listens to it
+        if(!GameEvents.hasListeners(ArenaBlockPlaceEvent.getHandlerList()))
+            return;
+
         // Call event
         final ArenaBlockPlaceEvent arenaBlockPlaceEvent = new ArenaBlockPlaceEvent(arena, player, event.getBlock());
         Bukkit.getPluginManager().callEvent(arenaBlockPlaceEvent);
@@ -143,6 +158,10 @@ public class GameListener implements Listener {
         if(!arena.getFlag(ArenaFlag.BUCKET_EMPTY))
             event.setCancelled(true);
 
+        // Skip the event if nobody listens to it
+        if(!GameEvents.hasListeners(ArenaBucketEmptyEvent.getHandlerList()))
+            return;
+
         // Call event
         final ArenaBucketEmptyEvent arenaBucketEmptyEvent = new ArenaBucketEmptyEvent(arena, player);
         Bukkit.getPluginManager().callEvent(arenaBucketEmptyEvent);
@@ -171,6 +190,10 @@ public class GameListener implements Listener {
         if(!arena.getFlag(ArenaFlag.BUCKET_FILL))
             event.setCancelled(true);
 
+        // Skip the event if nobody listens to it
+        if(!GameEvents.hasListeners(ArenaBucketFillEvent.getHandlerList()))
+            return;
+
         // Call event
         final ArenaBucketFillEvent arenaBucketFillEvent = new ArenaBucketFillEvent(arena, player);
         Bukkit.getPluginManager().callEvent(arenaBucketFillEvent);
@@ -179,6 +202,15 @@ public class GameListener implements Listener {
             event.setCancelled(true);
     }
 
+    /**
+     * Controls the player changed world event
+     * @param event player changed world event
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onChangedWorld(final PlayerChangedWorldEvent event) {
+        gameAPI.getMoveSampler().remove(event.getPlayer().getUniqueId());
+    }
+
     /**
      * Controls the player chat event
      * @param event async player chat event
@@ -296,6 +328,10 @@ public class GameListener implements Listener {
             return;
         }
 
+        // Skip the event if nobody listens to it
+        if(!GameEvents.hasListeners(PlayerDamageEvent.getHandlerList()))
+            return;
+
         // Call event
         final PlayerDamageEvent playerDamageEvent = new PlayerDamageEvent(target, arena, event.getDamage());
         Bukkit.getPluginManager().callEvent(playerDamageEvent);
@@ -364,6 +400,9 @@ public class GameListener implements Listener {
             final ArenaTeam arena = (ArenaTeam) arenaDamager;
 
             if(arena.sameTeam(damager, target)) {
+                if(!GameEvents.hasListeners(PlayerFriendlyFireEvent.getHandlerList()))
+                    return;
+
                 final PlayerFriendlyFireEvent playerFriendlyFireEvent = new PlayerFriendlyFireEvent(target, damager, bukkitDamager.getItemInHand(), event.getDamage(), arenaDamager);
                 Bukkit.getPluginManager().callEvent(playerFriendlyFireEvent);
 
@@ -377,6 +416,10 @@ public class GameListener implements Listener {
             }
         }
 
+        // Skip the event if nobody listens to it
+        if(!GameEvents.hasListeners(PlayerDamageByPlayerEvent.getHandlerList()))
+            return;
+
         // Call event
         final PlayerDamageByPlayerEvent playerDamageByPlayerEvent = new PlayerDamageByPlayerEvent(target, damager, bukkitDamager.getItemInHand(), event.getDamage(), arenaDamager);
         Bukkit.getPluginManager().callEvent(playerDamageByPlayerEvent);
@@ -439,6 +482,10 @@ public class GameListener implements Listener {
         if(!arena.getFlag(ArenaFlag.DROP_ITEM))
             event.setCancelled(true);
 
+        // Skip the event if nobody listens to it
+        if(!GameEvents.hasListeners(PlayerThrowItemEvent.getHandlerList()))
+            return;
+
         // Call event
         final PlayerThrowItemEvent playerThrowItemEvent = new PlayerThrowItemEvent(player, arena, event.getItemDrop());
         Bukkit.getPluginManager().callEvent(playerThrowItemEvent);
@@ -467,6 +514,10 @@ public class GameListener implements Listener {
         if(!arena.getFlag(ArenaFlag.HUNGER))
             event.setCancelled(true);
 
+        // Skip the event if nobody listens to it
+        if(!GameEvents.hasListeners(PlayerHungerEvent.getHandlerList()))
+            return;
+
         // Call event
         final PlayerHungerEvent playerHungerEvent = new PlayerHungerEvent(player, arena, event.getFoodLevel());
         Bukkit.getPluginManager().callEvent(playerHungerEvent);
@@ -500,6 +551,10 @@ public class GameListener implements Listener {
         if(!arena.getFlag(ArenaFlag.INTERACT))
             event.setCancelled(true);
 
+        // Skip the event if nobody listens to it
+        if(!GameEvents.hasListeners(PlayerInteractionEvent.getHandlerList()))
+            return;
+
         // Call event
         final PlayerInteractionEvent playerInteractionEvent = new PlayerInteractionEvent(player, arena, event.getAction(), event.getClickedBlock(), event.getItem());
         Bukkit.getPluginManager().callEvent(playerInteractionEvent);
@@ -528,6 +583,10 @@ public class GameListener implements Listener {
         if(!arena.getFlag(ArenaFlag.INVENTORY_CLICK))
             event.setCancelled(true);
 
+        // Skip the event if nobody listens to it
+        if(!GameEvents.hasListeners(PlayerInventoryClickEvent.getHandlerList()))
+            return;
+
         // Call event
         final PlayerInventoryClickEvent playerInventoryClickEvent = new PlayerInventoryClickEvent(player, arena, event.getClickedInventory(), event.getSlot());
         Bukkit.getPluginManager().callEvent(playerInventoryClickEvent);
@@ -577,43 +636,54 @@ public class GameListener implements Listener {
         }
 
         // Events
+        final boolean jumpListeners = GameEvents.hasListeners(PlayerJumpEvent.getHandlerList());
+        final boolean walkListeners = GameEvents.hasListeners(PlayerWalkEvent.getHandlerList());
+        final MoveSample sample = jumpListeners || walkListeners ? gameAPI.getMoveSampler().sample(uuid, event.getFrom(), event.getTo()) : null;
+
         // Jump event
-        if(event.getFrom().getY() != event.getTo().getX()) {
-            final double height = event.getTo().getY() - event.getFrom().getY();
-            final PlayerJumpEvent playerJumpEvent = new PlayerJumpEvent(player, arena, height);
+        if(sample != null && jumpListeners && sample.getHeight() != 0) {
+            final PlayerJumpEvent playerJumpEvent = new PlayerJumpEvent(player, arena, sample.getHeight());
             Bukkit.getPluginManager().callEvent(playerJumpEvent);
 
             if (playerJumpEvent.isCancelled()) {
                 event.setTo(event.getFrom());
+                gameAPI.getMoveSampler().reject(uuid);
                 return;
             }
         }
 
         // Crossing borders event
-        final Location[] corners;
-        if(arena.getSession().getState() == GameState.DEATHMATCH)
-            corners = arena.getCornersDeathMatch();
-        else
-            corners = arena.getCorners();
-
-        if(!Maths.isInAABB(event.getTo(), corners[0], corners[1])) {
-            // Call event
-            final PlayerCrossArenaBorderEvent crossArenaBorderEvent = new PlayerCrossArenaBorderEvent(player, arena);
-            Bukkit.getPluginManager().callEvent(crossArenaBorderEvent);
-
-            if(crossArenaBorderEvent.isCancelled()) {
-                event.setTo(event.getFrom());
-                return;
+        if(GameEvents.hasListeners(PlayerCrossArenaBorderEvent.getHandlerList())) {
+            final Location[] corners;
+            if(arena.getSession().getState() == GameState.DEATHMATCH)
+                corners = arena.getCornersDeathMatch();
+            else
+                corners = arena.getCorners();
+
+            if(!Maths.isInAABB(event.getTo(), corners[0], corners[1])) {
+                // Call event
+                final PlayerCrossArenaBorderEvent crossArenaBorderEvent = new PlayerCrossArenaBorderEvent(player, arena);
+                Bukkit.getPluginManager().callEvent(crossArenaBorderEvent);
+
+                if(crossArenaBorderEvent.isCancelled()) {
+                    event.setTo(event.getFrom());
+                    gameAPI.getMoveSampler().reject(uuid);
+                    return;
+                }
             }
         }
 
         // Walk event
-        final double distance = Maths.distanceBetween(event.getFrom(), event.getTo());
-        final PlayerWalkEvent playerWalkEvent = new PlayerWalkEvent(player, arena, distance);
+        if(sample == null || !walkListeners)
+            return;
+
+        final PlayerWalkEvent playerWalkEvent = new PlayerWalkEvent(player, arena, sample.getDistance());
         Bukkit.getPluginManager().callEvent(playerWalkEvent);
 
-        if (playerWalkEvent.isCancelled())
+        if (playerWalkEvent.isCancelled()) {
             event.setTo(event.getFrom());
+            gameAPI.getMoveSampler().reject(uuid);
+        }
     }
 
     /**
@@ -636,6 +706,10 @@ public class GameListener implements Listener {
         if(!arena.getFlag(ArenaFlag.PICKUP_ITEM))
             event.setCancelled(true);
 
+        // Skip the event if nobody listens to it
+        if(!GameEvents.hasListeners(PlayerCatchItemEvent.getHandlerList()))
+            return;
+
         // Call event
         final PlayerCatchItemEvent playerCatchItemEvent = new PlayerCatchItemEvent(player, arena, event.getItem());
         Bukkit.getPluginManager().callEvent(playerCatchItemEvent);
@@ -654,6 +728,12 @@ public class GameListener implements Listener {
 
         final UUID uuid = event.getPlayer().getUniqueId();
 
+        // Persist pending statistics
+        final StatisticBuffer statisticBuffer = ServerPlayer.getStatisticBuffer();
+        if(statisticBuffer != null)
+            statisticBuffer.flush(uuid);
+        gameAPI.getMoveSampler().remove(uuid);
+
         // Get needed data
         final GamePlayer player = gameAPI.getPlayer(uuid);
         if(player == null)
@@ -661,10 +741,46 @@ public class GameListener implements Listener {
         GameAPI.getInstance().removePlayer(player);
 
         final Arena arena = gameAPI.getPlayerArena(uuid);
-        if(arena == null)
+        if(arena != null) {
+            gameAPI.leaveGame(player, arena);
+            gameAPI.removePlayerArena(uuid, arena);
+        }
+        gameAPI.getVisibilityManager().remove(uuid);
+    }
+
+    /**
+     * Controls the player respawn event
+     * @param event player respawn event
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onRespawn(final PlayerRespawnEvent event) {
+        gameAPI.getMoveSampler().remove(event.getPlayer().getUniqueId());
+    }
+
+    /**
+     * Controls the session finish event
+     * @param event session finish event
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onSessionFinish(final SessionFinishEvent event) {
+        final StatisticBuffer statisticBuffer = ServerPlayer.getStatisticBuffer();
+        if(statisticBuffer == null)
             return;
 
-        gameAPI.leaveGame(player, arena);
+        // Persist pending statistics of the players
+        statisticBuffer.flush(event.getSession().getArena().getAllPlayers().stream()
+                .map(GamePlayer::getUuid)
+                .collect(Collectors.toList()));
+    }
+
+    /**
+     * Controls the player teleport event
+     * @param event player teleport event
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onTeleport(final PlayerTeleportEvent event) {
+        // Teleports do not call the move event, start a new sample from the destination
+        gameAPI.getMoveSampler().remove(event.getPlayer().getUniqueId());
     }
 
     /**
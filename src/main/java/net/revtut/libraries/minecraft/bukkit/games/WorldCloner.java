@@ -0,0 +1,217 @@
+package net.revtut.libraries.minecraft.bukkit.games;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * World Cloner.
+ * Clones template worlds into arena worlds off the main thread. The files are copied in parallel, the region files
+ * being most of the size, using channel transfers so the bytes are not copied through the heap. The files a throwaway
+ * arena does not need are skipped.
+ */
+public class WorldCloner {
+
+    /**
+     * Names of the files and folders skipped by default
+     */
+    public static final Set<String> DEFAULT_SKIPPED = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+            "playerdata", "stats", "advancements", "session.lock", "uid.dat")));
+
+    /**
+     * Workers that copy the files
+     */
+    private final ExecutorService executor;
+
+    /**
+     * Names of the files and folders that are not cloned
+     */
+    private final Set<String> skipped;
+
+    /**
+     * Number of worlds cloned, files copied and files skipped
+     */
+    private final AtomicLong clonedWorlds, copiedFiles, skippedFiles;
+
+    /**
+     * Number of bytes copied
+     */
+    private final AtomicLong copiedBytes;
+
+    /**
+     * Constructor of WorldCloner with a worker per two processors
+     */
+    public WorldCloner() {
+        this(Math.max(2, Runtime.getRuntime().availableProcessors() / 2), DEFAULT_SKIPPED);
+    }
+
+    /**
+     * Constructor of WorldCloner
+     * @param threads number of worker threads
+     * @param skipped names of the files and folders that are not cloned
+     */
+    public WorldCloner(final int threads, final Set<String> skipped) {
+        final AtomicInteger threadId = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+            final Thread thread = new Thread(runnable, "World Cloner #" + threadId.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.skipped = new HashSet<>(skipped);
+        this.clonedWorlds = new AtomicLong();
+        this.copiedFiles = new AtomicLong();
+        this.skippedFiles = new AtomicLong();
+        this.copiedBytes = new AtomicLong();
+    }
+
+    /**
+     * Get the names of the files and folders that are not cloned
+     * @return names that are skipped
+     */
+    public Set<String> getSkipped() {
+        return Collections.unmodifiableSet(skipped);
+    }
+
+    /**
+     * Get the number of worlds cloned
+     * @return number of cloned worlds
+     */
+    public long getClonedWorlds() {
+        return clonedWorlds.get();
+    }
+
+    /**
+     * Get the number of files copied
+     * @return number of copied files
+     */
+    public long getCopiedFiles() {
+        return copiedFiles.get();
+    }
+
+    /**
+     * Get the number of files and folders skipped
+     * @return number of skipped files
+     */
+    public long getSkippedFiles() {
+        return skippedFiles.get();
+    }
+
+    /**
+     * Get the number of bytes copied
+     * @return number of copied bytes
+     */
+    public long getCopiedBytes() {
+        return copiedBytes.get();
+    }
+
+    /**
+     * Clone a world folder asynchronously
+     * @param source folder of the template world
+     * @param target folder of the new world
+     * @return future completed with the target folder once every file was copied
+     */
+    public CompletableFuture<File> clone(final File source, final File target) {
+        return CompletableFuture.supplyAsync(() -> walk(source.toPath(), target.toPath()), executor)
+                .thenCompose(copies -> CompletableFuture.allOf(copies.toArray(new CompletableFuture<?>[0])))
+                .thenApply(ignored -> {
+                    clonedWorlds.incrementAndGet();
+                    return target;
+                });
+    }
+
+    /**
+     * Stop the workers, waiting for the running copies to finish
+     * @param timeout maximum time (in milliseconds) to wait
+     * @return true if all the copies finished, false otherwise
+     */
+    public boolean close(final long timeout) {
+        executor.shutdown();
+        try {
+            return executor.awaitTermination(timeout, TimeUnit.MILLISECONDS);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Create the folders of the new world and submit a copy per file
+     * @param source folder of the template world
+     * @param target folder of the new world
+     * @return copies of the files
+     */
+    private List<CompletableFuture<Void>> walk(final Path source, final Path target) {
+        final List<CompletableFuture<Void>> copies = new ArrayList<>();
+        try {
+            Files.walkFileTree(source, new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult preVisitDirectory(final Path directory, final BasicFileAttributes attributes) throws IOException {
+                    if(!directory.equals(source) && skipped.contains(directory.getFileName().toString())) {
+                        skippedFiles.incrementAndGet();
+                        return FileVisitResult.SKIP_SUBTREE;
+                    }
+
+                    Files.createDirectories(target.resolve(source.relativize(directory)));
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFile(final Path file, final BasicFileAttributes attributes) {
+                    if(skipped.contains(file.getFileName().toString())) {
+                        skippedFiles.incrementAndGet();
+                        return FileVisitResult.CONTINUE;
+                    }
+
+                    final Path destination = target.resolve(source.relativize(file));
+                    copies.add(CompletableFuture.runAsync(() -> copy(file, destination), executor));
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (final IOException e) {
+            throw new IllegalStateException("Could not clone " + source + ".", e);
+        }
+        return copies;
+    }
+
+    /**
+     * Copy a file transferring between the channels, failing if it could not be copied whole
+     * @param source file to be copied
+     * @param target file to be created
+     */
+    private void copy(final Path source, final Path target) {
+        try (final FileChannel in = FileChannel.open(source, StandardOpenOption.READ);
+             final FileChannel out = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            final long size = in.size();
+            long position = 0;
+            while(position < size) {
+                final long transferred = in.transferTo(position, size - position, out);
+                if(transferred <= 0)
+                    throw new IOException("Short transfer, copied " + position + " of " + size + " bytes.");
+                position += transferred;
+            }
+
+            copiedFiles.incrementAndGet();
+            copiedBytes.addAndGet(position);
+        } catch (final IOException e) {
+            throw new IllegalStateException("Could not copy " + source + ".", e);
+        }
+    }
+}
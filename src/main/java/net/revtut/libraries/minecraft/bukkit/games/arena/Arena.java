@@ -1,13 +1,16 @@
 package net.revtut.libraries.minecraft.bukkit.games.arena;
 
 import net.revtut.libraries.generic.util.Files;
+import net.revtut.libraries.minecraft.bukkit.games.GameAPI;
 import net.revtut.libraries.minecraft.bukkit.games.arena.session.GameSession;
 import net.revtut.libraries.minecraft.bukkit.games.arena.session.GameState;
+import net.revtut.libraries.minecraft.bukkit.games.arena.session.SessionScheduler;
 import net.revtut.libraries.minecraft.bukkit.games.arena.types.ArenaType;
 import net.revtut.libraries.minecraft.bukkit.games.events.player.PlayerJoinArenaEvent;
 import net.revtut.libraries.minecraft.bukkit.games.events.player.PlayerLeaveArenaEvent;
 import net.revtut.libraries.minecraft.bukkit.games.events.player.PlayerSpectateArenaEvent;
 import net.revtut.libraries.minecraft.bukkit.games.player.GamePlayer;
+import net.revtut.libraries.minecraft.bukkit.games.player.PlayerGroup;
 import net.revtut.libraries.minecraft.bukkit.games.player.PlayerState;
 import net.revtut.libraries.minecraft.bukkit.utils.Worlds;
 import org.bukkit.Bukkit;
@@ -16,12 +19,14 @@ import org.bukkit.Location;
 import org.bukkit.World;
 import org.bukkit.entity.Player;
 
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 import java.util.logging.Level;
-import java.util.stream.Collectors;
 
 /**
  * Arena Object
@@ -66,9 +71,24 @@ public abstract class Arena {
     private GameSession currentSession;
 
     /**
-     * Flags of the arena
+     * Players on the arena
      */
-    private final Map<ArenaFlag, Boolean> flags;
+    private final PlayerGroup members;
+
+    /**
+     * Matchmaker of the game of the arena, null if not added to one
+     */
+    private ArenaMatchmaker matchmaker;
+
+    /**
+     * Flags of the arena that are disabled, all the others are enabled
+     */
+    private final EnumSet<ArenaFlag> disabledFlags;
+
+    /**
+     * Disabled flags applied when the session switches to each state
+     */
+    private final Map<GameState, EnumSet<ArenaFlag>> flagProfiles;
 
     /**
      * Constructor of the Arena
@@ -77,7 +97,9 @@ public abstract class Arena {
     public Arena(final String name) {
         this.id = currentID++;
         this.name = this.id + "_" + name;
-        this.flags = new HashMap<>();
+        this.members = new PlayerGroup();
+        this.disabledFlags = EnumSet.noneOf(ArenaFlag.class);
+        this.flagProfiles = new EnumMap<>(GameState.class);
     }
 
     /**
@@ -87,7 +109,16 @@ public abstract class Arena {
      */
     public void initArena(final Location lobbyLocation, final GameSession gameSession) {
         this.lobbyLocation = lobbyLocation;
+
+        // Tick the new session instead of the previous one
+        final SessionScheduler sessionScheduler = GameAPI.getInstance().getSessionScheduler();
+        if(currentSession != null)
+            sessionScheduler.unregister(currentSession);
         this.currentSession = gameSession;
+        if(gameSession != null)
+            sessionScheduler.register(gameSession);
+
+        updateMatchmaking();
     }
 
     /**
@@ -99,7 +130,10 @@ public abstract class Arena {
      * @param cornersDeathMatch corners of the death match arena
      */
     public void initWorld(final World arenaWorld, final Location spectatorLocation, final Location spectatorDeathMatchLocation, final Location[] corners, final Location[] cornersDeathMatch) {
+        if(this.arenaWorld != null)
+            GameAPI.getInstance().removeArenaWorld(this.arenaWorld.getName(), this);
         this.arenaWorld = arenaWorld;
+        GameAPI.getInstance().addArenaWorld(arenaWorld.getName(), this);
         this.spectatorLocation = spectatorLocation;
         this.spectatorDeathMatchLocation = spectatorDeathMatchLocation;
 
@@ -234,13 +268,30 @@ public abstract class Arena {
         return currentSession;
     }
 
+    /**
+     * Get the members of the arena
+     * @return read only view of the players on the arena
+     */
+    public List<GamePlayer> getMembers() {
+        return members.getPlayers();
+    }
+
     /**
      * Get players that are currently on a state
      * @param state state to filter players
      * @return players that correspond to that state
      */
     public List<GamePlayer> getPlayers(final PlayerState state) {
-        return getAllPlayers().stream().filter(player -> player.getState() == state).collect(Collectors.toList());
+        return new ArrayList<>(members.getPlayers(state));
+    }
+
+    /**
+     * Get players that are currently on a state without copying them
+     * @param state state of the players
+     * @return read only view of the players that correspond to that state
+     */
+    public Collection<GamePlayer> getPlayersView(final PlayerState state) {
+        return members.getPlayers(state);
     }
 
     /**
@@ -248,7 +299,66 @@ public abstract class Arena {
      * @return number of players on the arena
      */
     public int getSize() {
-        return getAllPlayers().size();
+        return members.size();
+    }
+
+    /**
+     * Get the number of players that are currently on a state
+     * @param state state of the players
+     * @return number of players on that state
+     */
+    public int getSize(final PlayerState state) {
+        return members.size(state);
+    }
+
+    /**
+     * Add a player to the members of the arena
+     * @param player player to be added
+     */
+    public void addMember(final GamePlayer player) {
+        members.add(player);
+        GameAPI.getInstance().setPlayerArena(player.getUuid(), this);
+        GameAPI.getInstance().getVisibilityManager().update(player, this);
+        GameAPI.getInstance().getMoveSampler().remove(player.getUuid());
+        updateMatchmaking();
+    }
+
+    /**
+     * Remove a player from the members of the arena
+     * @param player player to be removed
+     */
+    public void removeMember(final GamePlayer player) {
+        members.remove(player);
+        GameAPI.getInstance().removePlayerArena(player.getUuid(), this);
+        GameAPI.getInstance().getVisibilityManager().update(player, null);
+        GameAPI.getInstance().getMoveSampler().remove(player.getUuid());
+        updateMatchmaking();
+    }
+
+    /**
+     * Set the matchmaker of the game of the arena
+     * @param matchmaker matchmaker of the arena, null if removed from it
+     */
+    void setMatchmaker(final ArenaMatchmaker matchmaker) {
+        this.matchmaker = matchmaker;
+    }
+
+    /**
+     * Update the position of the arena on its matchmaker, it must be called when its players, state or timer change
+     */
+    public void updateMatchmaking() {
+        if(matchmaker != null)
+            matchmaker.update(this);
+    }
+
+    /**
+     * Move a member of the arena to its current state
+     * @param player player whose state changed
+     */
+    public void updateMember(final GamePlayer player) {
+        members.update(player);
+        if(members.contains(player))
+            GameAPI.getInstance().getVisibilityManager().update(player, this);
     }
 
     /**
@@ -257,7 +367,7 @@ public abstract class Arena {
      * @return value of the flag
      */
     public boolean getFlag(final ArenaFlag flag) {
-        return flags.containsKey(flag) ? flags.get(flag) : true;
+        return !disabledFlags.contains(flag);
     }
 
     /**
@@ -266,7 +376,59 @@ public abstract class Arena {
      * @param value value of the flag
      */
     public void updateFlag(final ArenaFlag flag, final boolean value) {
-        flags.put(flag, value);
+        if(value)
+            disabledFlags.remove(flag);
+        else
+            disabledFlags.add(flag);
+    }
+
+    /**
+     * Update a flag on the profile of a state. The profile replaces the flags of the arena
+     * when the session switches to that state, the flags that were never updated on it are enabled.
+     * @param state state of the profile
+     * @param flag flag to be updated
+     * @param value value of the flag
+     */
+    public void updateFlag(final GameState state, final ArenaFlag flag, final boolean value) {
+        final EnumSet<ArenaFlag> profile = flagProfiles.computeIfAbsent(state, key -> EnumSet.noneOf(ArenaFlag.class));
+        if(value)
+            profile.remove(flag);
+        else
+            profile.add(flag);
+
+        // Keep the current flags in line with the profile of the current state
+        if(currentSession != null && currentSession.getState() == state)
+            applyFlagProfile(state);
+    }
+
+    /**
+     * Check if a state has a flag profile
+     * @param state state to be checked
+     * @return true if it has a profile, false otherwise
+     */
+    public boolean hasFlagProfile(final GameState state) {
+        return flagProfiles.containsKey(state);
+    }
+
+    /**
+     * Remove the flag profile of a state, the flags are no longer replaced when switching to it
+     * @param state state of the profile
+     */
+    public void removeFlagProfile(final GameState state) {
+        flagProfiles.remove(state);
+    }
+
+    /**
+     * Replace the flags of the arena with the profile of a state, if it has one
+     * @param state state of the profile
+     */
+    public void applyFlagProfile(final GameState state) {
+        final EnumSet<ArenaFlag> profile = flagProfiles.get(state);
+        if(profile == null)
+            return;
+
+        disabledFlags.clear();
+        disabledFlags.addAll(profile);
     }
 
     /**
@@ -300,20 +462,6 @@ public abstract class Arena {
         bukkitPlayer.teleport(lobbyLocation);
         bukkitPlayer.setGameMode(GameMode.ADVENTURE);
 
-        // Visibility configuration
-        for(final GamePlayer target : getAllPlayers()) {
-            final Player bukkitTarget = Bukkit.getPlayer(target.getUuid());
-            if(bukkitTarget == null)
-                continue;
-
-            bukkitTarget.showPlayer(bukkitPlayer);
-
-            if(target.getState() == PlayerState.SPECTATOR)
-                bukkitPlayer.hidePlayer(bukkitTarget);
-            else if(target.getState() == PlayerState.ALIVE)
-                bukkitPlayer.showPlayer(bukkitTarget);
-        }
-
         return true;
     }
 
@@ -376,12 +524,6 @@ public abstract class Arena {
         bukkitPlayer.teleport(lobbyLocation);
         bukkitPlayer.setGameMode(GameMode.SPECTATOR);
 
-        // Hide to players ingame except spectators
-        getAllPlayers().stream()
-                .filter(target -> target.getState() != PlayerState.SPECTATOR)
-                .filter(target -> Bukkit.getPlayer(target.getUuid()) != null)
-                .forEach(target -> bukkitPlayer.hidePlayer(Bukkit.getPlayer(target.getUuid())));
-
         return true;
     }
 
@@ -391,6 +533,14 @@ public abstract class Arena {
      * @return true if can, false otherwise
      */
     public boolean canJoin(final GamePlayer player) {
+        return isJoinable();
+    }
+
+    /**
+     * Check if the arena accepts players, regardless of the player joining
+     * @return true if accepts, false otherwise
+     */
+    public boolean isJoinable() {
         // Avoid joining when no session is created
         if(currentSession == null)
             return false;
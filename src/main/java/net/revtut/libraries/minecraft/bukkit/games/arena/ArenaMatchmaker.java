@@ -0,0 +1,233 @@
+package net.revtut.libraries.minecraft.bukkit.games.arena;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+
+/**
+ * Arena Matchmaker.
+ * Joinable arenas of a game sorted by number of players and by timer, so the preferred arena is picked in O(log n).
+ * The timers are sorted by their deadline, which does not change as they count down, so the arenas only tell it
+ * when their players, state or deadline change. It is used from the main thread only.
+ */
+public class ArenaMatchmaker {
+
+    /**
+     * Entries of all the arenas, joinable or not
+     */
+    private final Map<Arena, Entry> entries;
+
+    /**
+     * Joinable arenas sorted by number of players
+     */
+    private final TreeSet<Entry> bySize;
+
+    /**
+     * Joinable arenas sorted by the deadline of their timer
+     */
+    private final TreeSet<Entry> byTimer;
+
+    /**
+     * Constructor of ArenaMatchmaker
+     */
+    public ArenaMatchmaker() {
+        this.entries = new HashMap<>();
+        this.bySize = new TreeSet<>(Comparator.<Entry>comparingInt(entry -> entry.size).thenComparingInt(entry -> entry.id));
+        this.byTimer = new TreeSet<>(Comparator.<Entry>comparingLong(entry -> entry.deadline).thenComparingInt(entry -> entry.id));
+    }
+
+    /**
+     * Add a arena to the matchmaker
+     * @param arena arena to be added
+     */
+    public void add(final Arena arena) {
+        if(entries.containsKey(arena))
+            return;
+
+        entries.put(arena, new Entry(arena));
+        arena.setMatchmaker(this);
+        update(arena);
+    }
+
+    /**
+     * Remove a arena from the matchmaker
+     * @param arena arena to be removed
+     */
+    public void remove(final Arena arena) {
+        final Entry entry = entries.remove(arena);
+        if(entry == null)
+            return;
+
+        unlink(entry);
+        arena.setMatchmaker(null);
+    }
+
+    /**
+     * Update the position of a arena after its players, state or deadline changed
+     * @param arena arena to be updated
+     */
+    public void update(final Arena arena) {
+        final Entry entry = entries.get(arena);
+        if(entry == null)
+            return;
+
+        final boolean joinable = arena.isJoinable();
+        final int size = arena.getSize();
+        final long deadline = arena.getSession() == null ? 0 : arena.getSession().getDeadline();
+        if(joinable == entry.joinable && size == entry.size && deadline == entry.deadline)
+            return;
+
+        unlink(entry);
+        entry.size = size;
+        entry.deadline = deadline;
+        entry.joinable = joinable;
+        if(joinable) {
+            bySize.add(entry);
+            byTimer.add(entry);
+        }
+    }
+
+    /**
+     * Get the number of joinable arenas
+     * @return number of joinable arenas
+     */
+    public int size() {
+        return bySize.size();
+    }
+
+    /**
+     * Get all the joinable arenas
+     * @return joinable arenas sorted by number of players
+     */
+    public List<Arena> getArenas() {
+        final List<Arena> arenas = new ArrayList<>(bySize.size());
+        for(final Entry entry : bySize)
+            arenas.add(entry.arena);
+        return arenas;
+    }
+
+    /**
+     * Get the preferred joinable arena
+     * @param preference preference of the arena
+     * @return preferred arena, null if none is joinable
+     */
+    public Arena get(final ArenaPreference preference) {
+        final NavigableSet<Entry> order = order(preference);
+        return order.isEmpty() ? null : order.first().arena;
+    }
+
+    /**
+     * Get the preferred joinable arena with room for a number of players
+     * @param preference preference of the arena
+     * @param slots number of players that must fit
+     * @return preferred arena, null if none has room
+     */
+    public Arena get(final ArenaPreference preference, final int slots) {
+        final Iterator<Entry> iterator = order(preference).iterator();
+        while(iterator.hasNext()) {
+            final Entry entry = iterator.next();
+            if(entry.arena.getSession().getMaxPlayers() - entry.size >= slots)
+                return entry.arena;
+        }
+        return null;
+    }
+
+    /**
+     * Plan the arenas of a number of players at once, filling the preferred arenas first
+     * @param preference preference of the arenas
+     * @param players number of players to be placed
+     * @return arena of each player, shorter than the number of players if there is not enough room
+     */
+    public List<Arena> plan(final ArenaPreference preference, final int players) {
+        final List<Arena> plan = new ArrayList<>(players);
+        final Iterator<Entry> iterator = order(preference).iterator();
+        while(plan.size() < players && iterator.hasNext()) {
+            final Entry entry = iterator.next();
+            final int room = Math.min(entry.arena.getSession().getMaxPlayers() - entry.size, players - plan.size());
+            for(int slot = 0; slot < room; slot++)
+                plan.add(entry.arena);
+        }
+        return plan;
+    }
+
+    /**
+     * Get the joinable arenas in the order of a preference
+     * @param preference preference of the arena
+     * @return joinable arenas, the preferred first
+     */
+    private NavigableSet<Entry> order(final ArenaPreference preference) {
+        switch (preference) {
+            case MORE_PLAYERS:
+                return bySize.descendingSet();
+            case LESS_PLAYERS:
+                return bySize;
+            case MORE_REAMINING_TIME:
+                return byTimer.descendingSet();
+            case LESS_REMAINING_TIME:
+                return byTimer;
+            default:
+                return bySize.descendingSet();
+        }
+    }
+
+    /**
+     * Remove a entry from the sorted arenas, it must be done before its keys change
+     * @param entry entry to be removed
+     */
+    private void unlink(final Entry entry) {
+        if(!entry.joinable)
+            return;
+
+        bySize.remove(entry);
+        byTimer.remove(entry);
+    }
+
+    /**
+     * Entry.
+     * Arena with the values it is sorted by, so they do not change while it is on the sorted sets.
+     */
+    private static final class Entry {
+
+        /**
+         * Arena of the entry
+         */
+        private final Arena arena;
+
+        /**
+         * ID of the arena, used to break ties
+         */
+        private final int id;
+
+        /**
+         * Number of players of the arena when it was sorted
+         */
+        private int size;
+
+        /**
+         * Deadline of the timer of the arena when it was sorted
+         */
+        private long deadline;
+
+        /**
+         * True if the arena is on the sorted sets
+         */
+        private boolean joinable;
+
+        /**
+         * Constructor of Entry
+         * @param arena arena of the entry
+         */
+        private Entry(final Arena arena) {
+            this.arena = arena;
+            this.id = arena.getId();
+            this.size = -1;
+            this.deadline = 0;
+            this.joinable = false;
+        }
+    }
+}
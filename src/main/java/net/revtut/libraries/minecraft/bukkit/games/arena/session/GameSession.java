@@ -1,16 +1,22 @@
 package net.revtut.libraries.minecraft.bukkit.games.arena.session;
 
 import net.revtut.libraries.generic.structures.Pair;
+import net.revtut.libraries.minecraft.bukkit.games.GameAPI;
 import net.revtut.libraries.minecraft.bukkit.games.arena.Arena;
+import net.revtut.libraries.minecraft.bukkit.games.events.GameEvents;
 import net.revtut.libraries.minecraft.bukkit.games.events.session.*;
 import net.revtut.libraries.minecraft.bukkit.games.player.GamePlayer;
 import net.revtut.libraries.minecraft.bukkit.games.player.PlayerState;
 import net.revtut.libraries.minecraft.bukkit.games.utils.Winner;
 import org.bukkit.Bukkit;
 
+import java.io.File;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -30,9 +36,29 @@ public class GameSession {
     private GameState state;
 
     /**
-     * Initial value of the timer and current timer (used for countdown, game time, etc)
+     * Initial value of the timer (used for countdown, game time, etc)
      */
-    private int initialTimer, currentTimer;
+    private int initialTimer;
+
+    /**
+     * Time in milliseconds when the timer expires, the timer is derived from it instead of counted down
+     */
+    private volatile long deadline;
+
+    /**
+     * Actions run when the timer reaches a value, for each state
+     */
+    private final Map<GameState, List<Pair<Integer, Runnable>>> actions;
+
+    /**
+     * State and its duration switched to when the timer of a state expires
+     */
+    private final Map<GameState, Pair<GameState, Integer>> transitions;
+
+    /**
+     * Pending timeouts of the current timer
+     */
+    private final List<TimingWheel.Timeout> timeouts;
 
     /**
      * Minimum and maximum players on the game session
@@ -57,7 +83,7 @@ public class GameSession {
     /**
      * Events and chat log
      */
-    private final List<Pair<String, Date>> eventsLog, chatLog;
+    private final SessionLog eventsLog, chatLog;
 
     /**
      * Constructor of GameSession
@@ -66,17 +92,33 @@ public class GameSession {
      * @param maxPlayers maximum players of the game
      */
     public GameSession(final Arena arena, final int minPlayers, final int maxPlayers) {
+        this(arena, minPlayers, maxPlayers, SessionLog.DEFAULT_CAPACITY, null);
+    }
+
+    /**
+     * Constructor of GameSession
+     * @param arena arena of the game session
+     * @param minPlayers minimum players of the game
+     * @param maxPlayers maximum players of the game
+     * @param logCapacity number of entries of each log kept in memory
+     * @param logFolder folder where the older entries of the logs are spilled, null to drop them
+     */
+    public GameSession(final Arena arena, final int minPlayers, final int maxPlayers, final int logCapacity, final File logFolder) {
         this.arena = arena;
         this.minPlayers = minPlayers;
         this.maxPlayers = maxPlayers;
         this.state = GameState.NONE;
         this.initialTimer = 0;
-        this.currentTimer = 0;
+        this.deadline = SessionScheduler.now() + 1000L;
+        this.actions = new EnumMap<>(GameState.class);
+        this.transitions = new EnumMap<>(GameState.class);
+        this.timeouts = new ArrayList<>();
         this.winner = null;
         this.initialPlayers = new ArrayList<>();
         this.deathMatchPlayers = new ArrayList<>();
-        this.eventsLog = new ArrayList<>();
-        this.chatLog = new ArrayList<>();
+        final String logName = "session-" + arena.getId() + "-" + System.currentTimeMillis();
+        this.eventsLog = new SessionLog(logCapacity, logFolder == null ? null : new File(logFolder, logName + "-events.log"));
+        this.chatLog = new SessionLog(logCapacity, logFolder == null ? null : new File(logFolder, logName + "-chat.log"));
     }
 
     /**
@@ -100,7 +142,23 @@ public class GameSession {
      * @return timer of the game session
      */
     public int getTimer() {
-        return currentTimer;
+        return (int) Math.floorDiv(deadline - SessionScheduler.now() - 1, 1000L);
+    }
+
+    /**
+     * Get the time when the timer expires
+     * @return deadline of the timer in milliseconds of {@link SessionScheduler#now()}
+     */
+    public long getDeadline() {
+        return deadline;
+    }
+
+    /**
+     * Get the time left until the timer expires
+     * @return remaining time in milliseconds
+     */
+    public long getRemainingTime() {
+        return Math.max(0, deadline - SessionScheduler.now());
     }
 
     /**
@@ -163,7 +221,7 @@ public class GameSession {
      * Get the events log of the game
      * @return events log of the game
      */
-    public List<Pair<String, Date>> getEventsLog() {
+    public SessionLog getEventsSessionLog() {
         return eventsLog;
     }
 
@@ -171,10 +229,32 @@ public class GameSession {
      * Get the chat log of the game
      * @return chat log of the game
      */
-    public List<Pair<String, Date>> getChatLog() {
+    public SessionLog getChatSessionLog() {
         return chatLog;
     }
 
+    /**
+     * Get a copy of the events of the game kept in memory
+     * @return events of the game, the oldest first
+     * @deprecated copies the whole ring and misses the events already spilled to the file,
+     * use {@link #getEventsSessionLog()} instead
+     */
+    @Deprecated
+    public List<Pair<String, Date>> getEventsLog() {
+        return eventsLog.getEntries();
+    }
+
+    /**
+     * Get a copy of the chat messages of the game kept in memory
+     * @return chat messages of the game, the oldest first
+     * @deprecated copies the whole ring and misses the messages already spilled to the file,
+     * use {@link #getChatSessionLog()} instead
+     */
+    @Deprecated
+    public List<Pair<String, Date>> getChatLog() {
+        return chatLog.getEntries();
+    }
+
     /**
      * Set the winner of the game
      * @param winner winner of the game
@@ -189,7 +269,7 @@ public class GameSession {
      * @param date date of the event
      */
     public void addEvent(final String event, final Date date) {
-        this.eventsLog.add(new Pair<>(event, date));
+        this.eventsLog.add(event, date.getTime());
     }
 
     /**
@@ -198,7 +278,7 @@ public class GameSession {
      * @param date date of the message
      */
     public void addChatMessage(final String message, final Date date) {
-        this.chatLog.add(new Pair<>(message, date));
+        this.chatLog.add(message, date.getTime());
     }
 
     /**
@@ -224,14 +304,14 @@ public class GameSession {
                 return;
 
             startDate = new Date();
-            initialPlayers.addAll(arena.getPlayers(PlayerState.ALIVE)
+            initialPlayers.addAll(arena.getPlayersView(PlayerState.ALIVE)
                     .stream()
                     .map(GamePlayer::getUuid).collect(Collectors.toList()));
         }
 
         // Death match
         if(state == GameState.DEATHMATCH) {
-            deathMatchPlayers.addAll(arena.getPlayers(PlayerState.ALIVE)
+            deathMatchPlayers.addAll(arena.getPlayersView(PlayerState.ALIVE)
                     .stream()
                     .map(GamePlayer::getUuid).collect(Collectors.toList()));
         }
@@ -246,41 +326,189 @@ public class GameSession {
                 return;
 
             endDate = new Date();
+
+            // Stream the logs out, later entries are written as they are added
+            eventsLog.flush();
+            chatLog.flush();
         }
 
         // Update state
         this.state = state;
-        this.currentTimer = duration;
         this.initialTimer = duration;
+        this.deadline = SessionScheduler.now() + (duration + 1) * 1000L;
+        reschedule(true);
+        arena.applyFlagProfile(state);
+        arena.updateMatchmaking();
     }
 
     /**
      * Reset the game session timer
      */
     public void resetTimer() {
-        this.currentTimer = this.initialTimer;
+        this.deadline = SessionScheduler.now() + (initialTimer + 1) * 1000L;
+        reschedule(true);
+        arena.updateMatchmaking();
+    }
+
+    /**
+     * Run a action when the timer of a state reaches a value, every time the session is on that state
+     * @param state state of the session
+     * @param timer value of the timer, 10 runs it 10 seconds before the timer expires
+     * @param action action to be run on the main thread
+     */
+    public void scheduleAt(final GameState state, final int timer, final Runnable action) {
+        actions.computeIfAbsent(state, key -> new ArrayList<>()).add(new Pair<>(timer, action));
+        if(state == this.state)
+            reschedule(true);
+    }
+
+    /**
+     * Switch to a state when the timer of another state expires and the expire event is not cancelled
+     * @param from state whose timer expires
+     * @param to state to be switched to
+     * @param duration duration of the new state
+     */
+    public void scheduleTransition(final GameState from, final GameState to, final int duration) {
+        transitions.put(from, new Pair<>(to, duration));
     }
 
     /**
-     * Tick the game session
+     * Remove the actions and the transition of a state
+     * @param state state of the session
      */
+    public void clearSchedule(final GameState state) {
+        actions.remove(state);
+        transitions.remove(state);
+        if(state == this.state)
+            reschedule(true);
+    }
+
+    /**
+     * Run a action after a delay, with the precision of a server tick. It is cancelled if the session is unregistered.
+     * @param delay delay in milliseconds
+     * @param action action to be run on the main thread
+     * @return timeout of the action
+     */
+    public TimingWheel.Timeout scheduleIn(final long delay, final Runnable action) {
+        return GameAPI.getInstance().getSessionScheduler().schedule(this, SessionScheduler.now() + delay, action);
+    }
+
+    /**
+     * Schedule the expiry and the actions of the current timer again, after its deadline changed
+     * @param inclusive true if a action on the current value of the timer is run, false if it already was
+     */
+    void reschedule(final boolean inclusive) {
+        cancelTimeouts();
+
+        final SessionScheduler scheduler = GameAPI.getInstance().getSessionScheduler();
+        final int timer = getTimer();
+        for(final Pair<Integer, Runnable> action : actions.getOrDefault(state, Collections.emptyList())) {
+            if(action.getFirst() > timer || (!inclusive && action.getFirst() == timer))
+                continue;
+
+            timeouts.add(scheduler.schedule(this, deadline - (action.getFirst() + 1) * 1000L, action.getSecond()));
+        }
+        timeouts.add(scheduler.schedule(this, deadline, this::expire));
+    }
+
+    /**
+     * Release the session once it is no longer ticked, cancelling its timeouts and closing its logs
+     */
+    void release() {
+        cancelTimeouts();
+        eventsLog.close();
+        chatLog.close();
+    }
+
+    /**
+     * Cancel the pending timeouts of the current timer
+     */
+    private void cancelTimeouts() {
+        for(final TimingWheel.Timeout timeout : timeouts)
+            timeout.cancel();
+        timeouts.clear();
+    }
+
+    /**
+     * Count the timer down by one second and call the tick event, then the expire event if the timer expired,
+     * as the sessions were driven before they had a deadline. A cancelled tick event holds the timer.
+     * Must be called on the main thread.
+     * @deprecated the timer is counted down from its deadline and the session is ticked by the
+     * {@link SessionScheduler} once registered on it, so calling this counts a extra second. Sessions are driven by
+     * {@link #updateState(GameState, int)}, {@link #resetTimer()} and the schedules, such as
+     * {@link #scheduleTransition(GameState, GameState, int)}, instead
+     */
+    @Deprecated
     public void tick() {
-        // Call event
-        SessionEvent event = new SessionTimerTickEvent(this, --currentTimer);
+        this.deadline -= 1000L;
+        final boolean held = callTick();
+
+        if(getTimer() > -1) {
+            if(!held) {
+                reschedule(true);
+                arena.updateMatchmaking();
+            }
+            return;
+        }
+
+        // Expire now instead of on the next advance of the wheel
+        cancelTimeouts();
+        expire();
+
+        // Still expired, the next call calls the expire event again
+        if(getTimer() <= -1)
+            cancelTimeouts();
+    }
+
+    /**
+     * Call the tick event of the session, a cancelled event holds the timer for another second. Must be called on the main thread.
+     * @return true if the event was cancelled, false otherwise
+     */
+    boolean callTick() {
+        // Call event, skipped if nobody listens to it
+        if(!GameEvents.hasListeners(SessionTimerTickEvent.getHandlerList()))
+            return false;
+
+        final SessionEvent event = new SessionTimerTickEvent(this, getTimer());
         Bukkit.getPluginManager().callEvent(event);
 
-        if(event.isCancelled())
-            ++currentTimer;
+        if(!event.isCancelled())
+            return false;
 
-        // Timer has expired
-        if(currentTimer <= -1) {
-            // Call event
-            event = new SessionTimerExpireEvent(this);
-            Bukkit.getPluginManager().callEvent(event);
+        this.deadline += 1000L;
+        reschedule(false);
+        arena.updateMatchmaking();
+        return true;
+    }
 
-            if(event.isCancelled())
-                resetTimer();
+    /**
+     * Call the expire event if the timer has expired. A cancelled event resets the timer, otherwise the scheduled
+     * transition of the state is done, and without one the event is called again every second. Must be called on the main thread.
+     */
+    public void expire() {
+        if(getTimer() > -1)
+            return;
+
+        // Call event
+        final long expired = deadline;
+        final SessionEvent event = new SessionTimerExpireEvent(this);
+        Bukkit.getPluginManager().callEvent(event);
+
+        if(event.isCancelled()) {
+            resetTimer();
+            return;
         }
+
+        // Listeners may have already switched the state or reset the timer
+        if(deadline != expired)
+            return;
+
+        final Pair<GameState, Integer> transition = transitions.get(state);
+        if(transition != null)
+            updateState(transition.getFirst(), transition.getSecond());
+
+        if(deadline == expired)
+            timeouts.add(scheduleIn(1000L, this::expire));
     }
 
     /**
@@ -293,7 +521,7 @@ public class GameSession {
                 "arena=" + arena +
                 ", state=" + state +
                 ", initialTimer=" + initialTimer +
-                ", currentTimer=" + currentTimer +
+                ", currentTimer=" + getTimer() +
                 ", minPlayers=" + minPlayers +
                 ", maxPlayers=" + maxPlayers +
                 '}';
@@ -0,0 +1,387 @@
+package net.revtut.libraries.minecraft.bukkit.games.arena.session;
+
+import net.revtut.libraries.generic.structures.Pair;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Session Log.
+ * Append only log of a session keeping its newest entries on a ring. Each entry is a timestamp on a primitive
+ * array and a offset on a shared character buffer, so no object is kept per entry. The entries pushed out of the
+ * ring are spilled to a file if it has one, otherwise they are dropped. It is thread safe.
+ */
+public class SessionLog {
+
+    /**
+     * Default number of entries kept in memory
+     */
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    /**
+     * Time of each entry in milliseconds
+     */
+    private final long[] times;
+
+    /**
+     * Offset and length of the message of each entry on the buffer
+     */
+    private final int[] offsets, lengths;
+
+    /**
+     * Messages of the entries, in the order they were added
+     */
+    private char[] buffer;
+
+    /**
+     * Position on the buffer where the next message is written
+     */
+    private int bufferEnd;
+
+    /**
+     * Index of the oldest entry and number of entries on the ring
+     */
+    private int head, size;
+
+    /**
+     * Number of entries added and written to the file since the start
+     */
+    private long added, written;
+
+    /**
+     * Number of entries pushed out of the ring without a file
+     */
+    private long dropped;
+
+    /**
+     * File where the entries are spilled, null if they are dropped
+     */
+    private final File file;
+
+    /**
+     * Writer of the file, null if it is closed
+     */
+    private Writer writer;
+
+    /**
+     * True if every new entry is written straight to the file
+     */
+    private boolean streaming;
+
+    /**
+     * Constructor of SessionLog
+     * @param capacity number of entries kept in memory
+     * @param file file where the entries are spilled, null to drop them
+     */
+    public SessionLog(final int capacity, final File file) {
+        this(capacity, file, open(file));
+    }
+
+    /**
+     * Constructor of SessionLog
+     * @param capacity number of entries kept in memory
+     * @param file file where the entries are spilled, null to drop them
+     * @param writer writer of the file, null to drop the entries
+     */
+    SessionLog(final int capacity, final File file, final Writer writer) {
+        this.times = new long[Math.max(1, capacity)];
+        this.offsets = new int[times.length];
+        this.lengths = new int[times.length];
+        this.buffer = new char[times.length * 16];
+        this.bufferEnd = 0;
+        this.head = 0;
+        this.size = 0;
+        this.added = 0;
+        this.written = 0;
+        this.dropped = 0;
+        this.file = file;
+        this.writer = writer;
+        this.streaming = false;
+    }
+
+    /**
+     * Open the writer of a log file, creating its folder
+     * @param file file of the log, null if it has none
+     * @return writer of the file, null if it has none or it could not be opened
+     */
+    private static Writer open(final File file) {
+        if(file == null)
+            return null;
+
+        try {
+            if(file.getParentFile() != null)
+                file.getParentFile().mkdirs();
+            return new BufferedWriter(new FileWriter(file));
+        } catch (final IOException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    /**
+     * Get the number of entries kept in memory
+     * @return capacity of the ring
+     */
+    public int getCapacity() {
+        return times.length;
+    }
+
+    /**
+     * Get the file where the entries are spilled
+     * @return file of the log, null if it has none
+     */
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * Get the number of entries in memory
+     * @return number of entries in memory
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Get the number of entries added since the start
+     * @return number of entries added
+     */
+    public synchronized long getAdded() {
+        return added;
+    }
+
+    /**
+     * Get the number of entries written to the file
+     * @return number of entries written
+     */
+    public synchronized long getWritten() {
+        return written;
+    }
+
+    /**
+     * Get the number of entries lost because the log has no file or it could not be written
+     * @return number of entries dropped
+     */
+    public synchronized long getDropped() {
+        return dropped;
+    }
+
+    /**
+     * Add a entry to the log, spilling or dropping the oldest one if the ring is full
+     * @param message message of the entry
+     * @param time time of the entry in milliseconds
+     */
+    public synchronized void add(final String message, final long time) {
+        if(size == times.length)
+            evict();
+
+        reserve(message.length());
+        final int index = (head + size) % times.length;
+        message.getChars(0, message.length(), buffer, bufferEnd);
+        times[index] = time;
+        offsets[index] = bufferEnd;
+        lengths[index] = message.length();
+        bufferEnd += message.length();
+        size++;
+        added++;
+
+        if(streaming && writer != null)
+            write(size - 1);
+    }
+
+    /**
+     * Get the time of a entry in memory
+     * @param index index of the entry, 0 being the oldest
+     * @return time of the entry in milliseconds
+     */
+    public synchronized long getTime(final int index) {
+        return times[slot(index)];
+    }
+
+    /**
+     * Get the message of a entry in memory
+     * @param index index of the entry, 0 being the oldest
+     * @return message of the entry
+     */
+    public synchronized String getMessage(final int index) {
+        final int slot = slot(index);
+        return new String(buffer, offsets[slot], lengths[slot]);
+    }
+
+    /**
+     * Get a copy of the entries in memory
+     * @return entries in memory, the oldest first
+     */
+    public synchronized List<Pair<String, Date>> getEntries() {
+        final List<Pair<String, Date>> entries = new ArrayList<>(size);
+        for(int index = 0; index < size; index++) {
+            final int slot = (head + index) % times.length;
+            entries.add(new Pair<>(new String(buffer, offsets[slot], lengths[slot]), new Date(times[slot])));
+        }
+        return entries;
+    }
+
+    /**
+     * Write the entries in memory that were not written yet to the file, and every later entry as it is added
+     */
+    public synchronized void flush() {
+        if(writer == null)
+            return;
+
+        streaming = true;
+        for(int index = (int) Math.max(0, size - (added - written)); index < size; index++)
+            write(index);
+
+        try {
+            if(writer != null)
+                writer.flush();
+        } catch (final IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Close the file of the log, later entries are only kept in memory
+     */
+    public synchronized void close() {
+        flush();
+        if(writer == null)
+            return;
+
+        try {
+            writer.close();
+        } catch (final IOException e) {
+            e.printStackTrace();
+        }
+        writer = null;
+    }
+
+    /**
+     * Stream the whole log, the entries on the file followed by the ones in memory that are not on it.
+     * Each entry is written on its own line as the time in milliseconds, a tab and the escaped message.
+     * @param out writer where the log is streamed
+     * @throws IOException if the log could not be read or written
+     */
+    public synchronized void writeTo(final Writer out) throws IOException {
+        long onFile = 0;
+        if(file != null && written > 0) {
+            if(writer != null)
+                writer.flush();
+
+            try (final BufferedReader reader = new BufferedReader(new FileReader(file))) {
+                String line;
+                while(onFile < written && (line = reader.readLine()) != null) {
+                    out.write(line);
+                    out.write('\n');
+                    onFile++;
+                }
+            }
+        }
+
+        for(int index = (int) Math.max(0, size - (added - onFile)); index < size; index++)
+            out.write(format(index));
+        out.flush();
+    }
+
+    /**
+     * Push the oldest entry out of the ring
+     */
+    private void evict() {
+        // Entries are written in order, so the oldest is the next one unless it was already written
+        if(added - size >= written && !write(0))
+            dropped++;
+
+        head = (head + 1) % times.length;
+        size--;
+    }
+
+    /**
+     * Make room on the buffer for a message, moving the live messages to its start or growing it
+     * @param length length of the message
+     */
+    private void reserve(final int length) {
+        if(bufferEnd + length <= buffer.length)
+            return;
+
+        final int start = size == 0 ? bufferEnd : offsets[head];
+        final int live = bufferEnd - start;
+        final char[] target = live + length > buffer.length - buffer.length / 4 ? new char[Math.max(buffer.length * 2, live + length)] : buffer;
+        System.arraycopy(buffer, start, target, 0, live);
+        for(int index = 0; index < size; index++)
+            offsets[(head + index) % times.length] -= start;
+        buffer = target;
+        bufferEnd = live;
+    }
+
+    /**
+     * Write a entry in memory to the file, closing it if the write fails
+     * @param index index of the entry, 0 being the oldest
+     * @return true if the entry was written, false otherwise
+     */
+    private boolean write(final int index) {
+        if(writer == null)
+            return false;
+
+        try {
+            writer.write(format(index));
+            written++;
+            return true;
+        } catch (final IOException e) {
+            e.printStackTrace();
+            try {
+                writer.close();
+            } catch (final IOException ignored) {
+                // Already failed
+            }
+            writer = null;
+            return false;
+        }
+    }
+
+    /**
+     * Format a entry in memory as a line
+     * @param index index of the entry, 0 being the oldest
+     * @return line of the entry
+     */
+    private String format(final int index) {
+        final int slot = slot(index);
+        final StringBuilder line = new StringBuilder(lengths[slot] + 24).append(times[slot]).append('\t');
+        for(int position = offsets[slot]; position < offsets[slot] + lengths[slot]; position++) {
+            final char character = buffer[position];
+            switch (character) {
+                case '\\':
+                    line.append("\\\\");
+                    break;
+                case '\n':
+                    line.append("\\n");
+                    break;
+                case '\r':
+                    line.append("\\r");
+                    break;
+                default:
+                    line.append(character);
+            }
+        }
+        return line.append('\n').toString();
+    }
+
+    /**
+     * Get the slot of a entry in memory
+     * @param index index of the entry, 0 being the oldest
+     * @return slot of the entry on the ring
+     */
+    private int slot(final int index) {
+        if(index < 0 || index >= size)
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+
+        return (head + index) % times.length;
+    }
+}
@@ -0,0 +1,292 @@
+package net.revtut.libraries.minecraft.bukkit.games.arena.session;
+
+import net.revtut.libraries.minecraft.bukkit.games.events.GameEvents;
+import net.revtut.libraries.minecraft.bukkit.games.events.session.SessionTimerTickEvent;
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Session Scheduler.
+ * Keeps the deadlines of the sessions, such as the expiry of their timers and their scheduled actions, on a
+ * timing wheel advanced every server tick off the main thread. Only the deadlines that are due are handed to
+ * the main thread in a single task, and the sessions are only visited once per second if a plugin listens to
+ * the tick event or a tick listener is added.
+ */
+public class SessionScheduler {
+
+    /**
+     * Interval in server ticks between the advances of the wheel
+     */
+    public static final long WHEEL_INTERVAL = 1L;
+
+    /**
+     * Interval in server ticks between the ticks of the sessions
+     */
+    public static final long TICK_INTERVAL = 20L;
+
+    /**
+     * Duration in milliseconds of a tick of the lowest level of the wheel
+     */
+    private static final long WHEEL_TICK = 50L;
+
+    /**
+     * Number of slots and levels of the wheel, spanning about 155 days
+     */
+    private static final int WHEEL_SLOTS = 64, WHEEL_LEVELS = 4;
+
+    /**
+     * Plugin owner of the tasks
+     */
+    private final Plugin plugin;
+
+    /**
+     * Sessions being ticked
+     */
+    private final Set<GameSession> sessions;
+
+    /**
+     * Deadlines of the sessions
+     */
+    private final TimingWheel wheel;
+
+    /**
+     * Listeners notified of the ticks off the main thread
+     */
+    private final List<SessionTickListener> listeners;
+
+    /**
+     * True while a tick is running, so a slow tick never overlaps the next one
+     */
+    private final AtomicBoolean ticking;
+
+    /**
+     * Number of session ticks done off and on the main thread
+     */
+    private final AtomicLong asyncTicks, syncTicks;
+
+    /**
+     * Number of deadlines that were due
+     */
+    private final AtomicLong firedTimeouts;
+
+    /**
+     * Number of advances of the wheel, only touched while ticking
+     */
+    private long advances;
+
+    /**
+     * Task ticking the sessions, null if stopped
+     */
+    private BukkitTask task;
+
+    /**
+     * Constructor of SessionScheduler
+     * @param plugin plugin owner of the tasks
+     */
+    public SessionScheduler(final Plugin plugin) {
+        this.plugin = plugin;
+        this.sessions = ConcurrentHashMap.newKeySet();
+        this.wheel = new TimingWheel(WHEEL_TICK, WHEEL_SLOTS, WHEEL_LEVELS, now());
+        this.listeners = new CopyOnWriteArrayList<>();
+        this.ticking = new AtomicBoolean();
+        this.asyncTicks = new AtomicLong();
+        this.syncTicks = new AtomicLong();
+        this.firedTimeouts = new AtomicLong();
+        this.advances = 0;
+        this.task = null;
+    }
+
+    /**
+     * Get the current time of the deadlines, it is monotonic and not related to the wall clock
+     * @return current time in milliseconds
+     */
+    public static long now() {
+        return System.nanoTime() / 1000000L;
+    }
+
+    /**
+     * Start ticking the sessions
+     */
+    public void start() {
+        if(task == null)
+            task = Bukkit.getScheduler().runTaskTimerAsynchronously(plugin, this::tick, WHEEL_INTERVAL, WHEEL_INTERVAL);
+    }
+
+    /**
+     * Stop ticking the sessions
+     */
+    public void stop() {
+        if(task != null)
+            task.cancel();
+        task = null;
+    }
+
+    /**
+     * Add a session to be ticked
+     * @param session session to be added
+     */
+    public void register(final GameSession session) {
+        if(sessions.add(session))
+            session.reschedule(true);
+    }
+
+    /**
+     * Remove a session from being ticked, cancelling its timeouts and closing its logs
+     * @param session session to be removed
+     */
+    public void unregister(final GameSession session) {
+        if(sessions.remove(session))
+            session.release();
+    }
+
+    /**
+     * Schedule a action of a session to a deadline, it is only run while the session is registered
+     * @param session session of the action
+     * @param deadline time in milliseconds of {@link #now()} when the action is due
+     * @param action action to be run on the main thread
+     * @return timeout of the action
+     */
+    public TimingWheel.Timeout schedule(final GameSession session, final long deadline, final Runnable action) {
+        return wheel.schedule(deadline, () -> {
+            if(sessions.contains(session))
+                action.run();
+        });
+    }
+
+    /**
+     * Get the number of sessions being ticked
+     * @return number of sessions
+     */
+    public int size() {
+        return sessions.size();
+    }
+
+    /**
+     * Add a listener notified of the ticks off the main thread
+     * @param listener listener to be added
+     */
+    public void addListener(final SessionTickListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Remove a listener of the ticks
+     * @param listener listener to be removed
+     */
+    public void removeListener(final SessionTickListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Get the number of session ticks done off the main thread
+     * @return number of async ticks
+     */
+    public long getAsyncTicks() {
+        return asyncTicks.get();
+    }
+
+    /**
+     * Get the number of session ticks that needed the main thread
+     * @return number of sync ticks
+     */
+    public long getSyncTicks() {
+        return syncTicks.get();
+    }
+
+    /**
+     * Get the number of deadlines that were due
+     * @return number of fired timeouts
+     */
+    public long getFiredTimeouts() {
+        return firedTimeouts.get();
+    }
+
+    /**
+     * Get the number of deadlines waiting on the wheel
+     * @return number of pending timeouts
+     */
+    public int getPendingTimeouts() {
+        return wheel.size();
+    }
+
+    /**
+     * Advance the wheel and, once per second, tick the sessions if anything listens to their ticks
+     */
+    public void tick() {
+        if(!ticking.compareAndSet(false, true))
+            return;
+
+        try {
+            final List<TimingWheel.Timeout> due = wheel.advance(now());
+            firedTimeouts.addAndGet(due.size());
+
+            // Sessions are only visited when something listens to their ticks
+            final List<GameSession> ticked = new ArrayList<>();
+            if(++advances % (TICK_INTERVAL / WHEEL_INTERVAL) == 0) {
+                if(GameEvents.hasListeners(SessionTimerTickEvent.getHandlerList())) {
+                    // Tick event listeners must run on the main thread
+                    ticked.addAll(sessions);
+                } else if(!listeners.isEmpty()) {
+                    for(final GameSession session : sessions) {
+                        asyncTicks.incrementAndGet();
+                        notify(session, session.getTimer());
+                    }
+                }
+            }
+
+            if(!due.isEmpty() || !ticked.isEmpty())
+                Bukkit.getScheduler().runTask(plugin, () -> runDue(due, ticked));
+        } finally {
+            ticking.set(false);
+        }
+    }
+
+    /**
+     * Run the due deadlines and tick the sessions on the main thread
+     * @param due deadlines that are due
+     * @param ticked sessions to be ticked
+     */
+    private void runDue(final List<TimingWheel.Timeout> due, final List<GameSession> ticked) {
+        for(final TimingWheel.Timeout timeout : due) {
+            try {
+                timeout.run();
+            } catch (final Exception e) {
+                e.printStackTrace();
+            }
+        }
+
+        for(final GameSession session : ticked) {
+            // Session may have been removed in the meantime
+            if(!sessions.contains(session))
+                continue;
+
+            syncTicks.incrementAndGet();
+            session.callTick();
+            notify(session, session.getTimer());
+        }
+    }
+
+    /**
+     * Notify the listeners of a tick
+     * @param session session that ticked
+     * @param timer new value of the timer
+     */
+    private void notify(final GameSession session, final int timer) {
+        for(final SessionTickListener listener : listeners) {
+            try {
+                listener.onTick(session, timer);
+            } catch (final Exception e) {
+                e.printStackTrace();
+            }
+        }
+    }
+}
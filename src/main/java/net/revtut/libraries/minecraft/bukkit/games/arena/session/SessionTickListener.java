@@ -0,0 +1,17 @@
+package net.revtut.libraries.minecraft.bukkit.games.arena.session;
+
+/**
+ * Session Tick Listener.
+ * Notified of every tick of the sessions without a Bukkit event. It is called off the main thread,
+ * unless a plugin listens to the timer tick event, so it must not touch the Bukkit API.
+ */
+@FunctionalInterface
+public interface SessionTickListener {
+
+    /**
+     * Called when a session ticks
+     * @param session session that ticked
+     * @param timer new value of the timer
+     */
+    void onTick(final GameSession session, final int timer);
+}
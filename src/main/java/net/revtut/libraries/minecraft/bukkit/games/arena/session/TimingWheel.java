@@ -0,0 +1,259 @@
+package net.revtut.libraries.minecraft.bukkit.games.arena.session;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Timing Wheel.
+ * Hierarchical timing wheel holding deadlines, so advancing the time only touches the deadlines that are due
+ * instead of polling every one of them. Each level has a number of slots covering the whole span of the level
+ * below, and its deadlines cascade down as the time gets closer to them. It is thread safe.
+ */
+public class TimingWheel {
+
+    /**
+     * Duration of a tick of the lowest level in milliseconds
+     */
+    private final long tickDuration;
+
+    /**
+     * Number of bits of the slot index of each level
+     */
+    private final int bits;
+
+    /**
+     * Mask of the slot index of each level
+     */
+    private final int mask;
+
+    /**
+     * Slots of each level
+     */
+    private final List<List<List<Timeout>>> wheels;
+
+    /**
+     * Last tick that was advanced
+     */
+    private long currentTick;
+
+    /**
+     * Number of pending timeouts
+     */
+    private int size;
+
+    /**
+     * Constructor of TimingWheel
+     * @param tickDuration duration of a tick of the lowest level in milliseconds
+     * @param slots number of slots of each level, rounded up to a power of two
+     * @param levels number of levels
+     * @param now current time in milliseconds
+     */
+    public TimingWheel(final long tickDuration, final int slots, final int levels, final long now) {
+        this.tickDuration = tickDuration;
+        this.bits = 32 - Integer.numberOfLeadingZeros(Math.max(2, slots) - 1);
+        this.mask = (1 << bits) - 1;
+        this.wheels = new ArrayList<>(levels);
+        for(int level = 0; level < levels; level++) {
+            final List<List<Timeout>> wheel = new ArrayList<>(mask + 1);
+            for(int slot = 0; slot <= mask; slot++)
+                wheel.add(new ArrayList<>());
+            wheels.add(wheel);
+        }
+        this.currentTick = now / tickDuration;
+        this.size = 0;
+    }
+
+    /**
+     * Get the duration of a tick of the lowest level
+     * @return duration of a tick in milliseconds
+     */
+    public long getTickDuration() {
+        return tickDuration;
+    }
+
+    /**
+     * Get the number of pending timeouts
+     * @return number of pending timeouts
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Schedule a task to a deadline
+     * @param deadline time in milliseconds when the task is due
+     * @param task task to be run
+     * @return timeout of the task
+     */
+    public synchronized Timeout schedule(final long deadline, final Runnable task) {
+        final Timeout timeout = new Timeout(this, deadline, task);
+        place(timeout, currentTick + 1);
+        size++;
+        return timeout;
+    }
+
+    /**
+     * Advance the wheel up to a time. The due tasks are returned instead of run, so the caller decides the thread
+     * @param now current time in milliseconds
+     * @return timeouts that are due, sorted by tick
+     */
+    public synchronized List<Timeout> advance(final long now) {
+        final List<Timeout> due = new ArrayList<>();
+        final long targetTick = now / tickDuration;
+        while(currentTick < targetTick) {
+            currentTick++;
+
+            // Cascade the upper levels whose slot was reached, from the highest to the lowest
+            for(int level = wheels.size() - 1; level > 0; level--) {
+                if((currentTick & ((1L << (bits * level)) - 1)) != 0)
+                    continue;
+
+                final List<Timeout> slot = wheels.get(level).get((int) ((currentTick >>> (bits * level)) & mask));
+                final List<Timeout> cascaded = new ArrayList<>(slot);
+                slot.clear();
+                for(final Timeout timeout : cascaded)
+                    place(timeout, currentTick);
+            }
+
+            // Expire the lowest level slot
+            final List<Timeout> slot = wheels.get(0).get((int) (currentTick & mask));
+            final Iterator<Timeout> iterator = slot.iterator();
+            final List<Timeout> early = new ArrayList<>();
+            while(iterator.hasNext()) {
+                final Timeout timeout = iterator.next();
+                iterator.remove();
+                if(timeout.deadlineTick > currentTick) {
+                    early.add(timeout);
+                    continue;
+                }
+
+                timeout.slot = null;
+                size--;
+                due.add(timeout);
+            }
+
+            // Deadlines beyond the span of the wheel go around again
+            for(final Timeout timeout : early)
+                place(timeout, currentTick + 1);
+        }
+        return due;
+    }
+
+    /**
+     * Place a timeout on the slot matching its deadline
+     * @param timeout timeout to be placed
+     * @param base next tick to be expired
+     */
+    private void place(final Timeout timeout, final long base) {
+        final long tick = Math.max(timeout.deadlineTick, base);
+        final long delta = tick - base;
+
+        int level = 0;
+        while(level < wheels.size() - 1 && delta >= (1L << (bits * (level + 1))))
+            level++;
+
+        // Beyond the span of the highest level, wait on its furthest slot
+        final long placed = delta >= (1L << (bits * wheels.size())) ? base + (1L << (bits * wheels.size())) - 1 : tick;
+        final List<Timeout> slot = wheels.get(level).get((int) ((placed >>> (bits * level)) & mask));
+        slot.add(timeout);
+        timeout.slot = slot;
+    }
+
+    /**
+     * Cancel a timeout
+     * @param timeout timeout to be cancelled
+     * @return true if cancelled, false if it was already due or cancelled
+     */
+    private synchronized boolean cancel(final Timeout timeout) {
+        if(timeout.slot == null)
+            return false;
+
+        timeout.slot.remove(timeout);
+        timeout.slot = null;
+        size--;
+        return true;
+    }
+
+    /**
+     * Timeout.
+     * Task scheduled to a deadline on a timing wheel.
+     */
+    public static final class Timeout {
+
+        /**
+         * Wheel of the timeout
+         */
+        private final TimingWheel wheel;
+
+        /**
+         * Time in milliseconds when the task is due
+         */
+        private final long deadline;
+
+        /**
+         * Tick when the task is due
+         */
+        private final long deadlineTick;
+
+        /**
+         * Task to be run
+         */
+        private final Runnable task;
+
+        /**
+         * Slot holding the timeout, null if it is no longer pending
+         */
+        private List<Timeout> slot;
+
+        /**
+         * True if the timeout was cancelled
+         */
+        private volatile boolean cancelled;
+
+        /**
+         * Constructor of Timeout
+         * @param wheel wheel of the timeout
+         * @param deadline time in milliseconds when the task is due
+         * @param task task to be run
+         */
+        private Timeout(final TimingWheel wheel, final long deadline, final Runnable task) {
+            this.wheel = wheel;
+            this.deadline = deadline;
+            this.deadlineTick = (deadline + wheel.tickDuration - 1) / wheel.tickDuration;
+            this.task = task;
+        }
+
+        /**
+         * Get the time when the task is due
+         * @return deadline in milliseconds
+         */
+        public long getDeadline() {
+            return deadline;
+        }
+
+        /**
+         * Check if the timeout was cancelled
+         * @return true if cancelled, false otherwise
+         */
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        /**
+         * Cancel the timeout, its task is not run even if it is already due
+         */
+        public void cancel() {
+            cancelled = true;
+            wheel.cancel(this);
+        }
+
+        /**
+         * Run the task unless the timeout was cancelled
+         */
+        public void run() {
+            if(!cancelled)
+                task.run();
+        }
+    }
+}
@@ -1,12 +1,12 @@
 package net.revtut.libraries.minecraft.bukkit.games.arena.types;
 
+import net.revtut.libraries.minecraft.bukkit.games.GameAPI;
 import net.revtut.libraries.minecraft.bukkit.games.arena.Arena;
 import net.revtut.libraries.minecraft.bukkit.games.arena.session.GameSession;
 import net.revtut.libraries.minecraft.bukkit.games.player.GamePlayer;
 import org.bukkit.Location;
 import org.bukkit.World;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
 
@@ -16,11 +16,6 @@ import java.util.UUID;
  */
 public class ArenaSolo extends Arena {
 
-    /**
-     * List with players in the arena
-     */
-    private final List<GamePlayer> players;
-
     /**
      * List with all spawn locations and death match locations
      */
@@ -37,8 +32,6 @@ public class ArenaSolo extends Arena {
      */
     public ArenaSolo(final String name) {
         super(name);
-
-        this.players = new ArrayList<>();
     }
 
     /**
@@ -114,10 +107,10 @@ public class ArenaSolo extends Arena {
 
     /**
      * Get all the players on the arena
-     * @return players on the arena
+     * @return read only view of the players on the arena
      */
     public List<GamePlayer> getAllPlayers() {
-        return players;
+        return getMembers();
     }
 
     /**
@@ -126,10 +119,7 @@ public class ArenaSolo extends Arena {
      * @return true if contains, false otherwise
      */
     public boolean containsPlayer(final UUID uuid) {
-        for(final GamePlayer target : players)
-            if(target.getUuid().equals(uuid))
-                return true;
-        return false;
+        return GameAPI.getInstance().getPlayerArena(uuid) == this;
     }
 
     /**
@@ -142,7 +132,7 @@ public class ArenaSolo extends Arena {
         if(!super.join(player))
             return false;
 
-        players.add(player);
+        addMember(player);
 
         return true;
     }
@@ -157,7 +147,7 @@ public class ArenaSolo extends Arena {
         if(!super.leave(player))
             return false;
 
-        players.remove(player);
+        removeMember(player);
 
         return true;
     }
@@ -171,7 +161,7 @@ public class ArenaSolo extends Arena {
         if(!super.spectate(player))
             return false;
 
-        players.add(player);
+        addMember(player);
 
         return true;
     }
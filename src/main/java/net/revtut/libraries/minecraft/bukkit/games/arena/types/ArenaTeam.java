@@ -1,5 +1,6 @@
 package net.revtut.libraries.minecraft.bukkit.games.arena.types;
 
+import net.revtut.libraries.minecraft.bukkit.games.GameAPI;
 import net.revtut.libraries.minecraft.bukkit.games.arena.Arena;
 import net.revtut.libraries.minecraft.bukkit.games.arena.session.GameSession;
 import net.revtut.libraries.minecraft.bukkit.games.player.GamePlayer;
@@ -7,7 +8,6 @@ import net.revtut.libraries.minecraft.bukkit.games.team.Team;
 import org.bukkit.Location;
 import org.bukkit.World;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
@@ -110,7 +110,7 @@ public class ArenaTeam extends Arena {
         Team emptierTeam = null;
         int minimumPlayers = Integer.MAX_VALUE;
         for(final Team team : teams) {
-            final int numberPlayers = team.getAllPlayers().size();
+            final int numberPlayers = team.getSize();
             if (numberPlayers < minimumPlayers) {
                 emptierTeam = team;
                 minimumPlayers = numberPlayers;
@@ -158,13 +158,24 @@ public class ArenaTeam extends Arena {
 
     /**
      * Get all the players on the arena
-     * @return players on the arena
+     * @return read only view of the players on the arena
      */
     public List<GamePlayer> getAllPlayers() {
-        final List<GamePlayer> players = new ArrayList<>();
+        return getMembers();
+    }
+
+    /**
+     * Move a member of the arena and of its team to its current state
+     * @param player player whose state changed
+     */
+    @Override
+    public void updateMember(final GamePlayer player) {
+        super.updateMember(player);
+        if(teams == null)
+            return;
+
         for(final Team team : teams)
-            players.addAll(team.getAllPlayers());
-        return players;
+            team.updatePlayer(player);
     }
 
     /**
@@ -173,10 +184,7 @@ public class ArenaTeam extends Arena {
      * @return true if contains, false otherwise
      */
     public boolean containsPlayer(final UUID uuid) {
-        for(final Team team : teams)
-            if(team.containsPlayer(uuid))
-                return true;
-        return false;
+        return GameAPI.getInstance().getPlayerArena(uuid) == this;
     }
 
     /**
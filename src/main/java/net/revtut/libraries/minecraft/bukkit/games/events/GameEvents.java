@@ -0,0 +1,25 @@
+package net.revtut.libraries.minecraft.bukkit.games.events;
+
+import org.bukkit.event.HandlerList;
+
+/**
+ * Game Events.
+ * Checks used to skip building and calling custom events that no plugin listens to.
+ */
+public final class GameEvents {
+
+    /**
+     * Constructor of GameEvents
+     */
+    private GameEvents() {}
+
+    /**
+     * Check if a event has registered listeners. The handlers are baked again whenever a listener
+     * is registered or unregistered, so the result always reflects the current listeners.
+     * @param handlers handlers of the event
+     * @return true if it has listeners, false otherwise
+     */
+    public static boolean hasListeners(final HandlerList handlers) {
+        return handlers.getRegisteredListeners().length > 0;
+    }
+}
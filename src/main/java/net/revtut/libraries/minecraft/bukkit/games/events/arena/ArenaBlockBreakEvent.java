@@ -3,12 +3,18 @@ package net.revtut.libraries.minecraft.bukkit.games.events.arena;
 import net.revtut.libraries.minecraft.bukkit.games.arena.Arena;
 import net.revtut.libraries.minecraft.bukkit.games.player.GamePlayer;
 import org.bukkit.block.Block;
+import org.bukkit.event.HandlerList;
 
 /**
  * Arena Block Break Event
  */
 public class ArenaBlockBreakEvent extends ArenaEvent {
 
+    /**
+     * Handlers list
+     */
+    private static final HandlerList handlers = new HandlerList();
+
     /**
      * Player that broke the block
      */
@@ -48,4 +54,20 @@ public class ArenaBlockBreakEvent extends ArenaEvent {
     public Block getBlock() {
         return block;
     }
-}
\ No newline at end of file
+
+    /**
+     * Get the handlers of the event
+     * @return handlers of the event
+     */
+    public HandlerList getHandlers() {
+        return handlers;
+    }
+
+    /**
+     * Get the handlers of the event
+     * @return handlers of the event
+     */
+    public static HandlerList getHandlerList() {
+        return handlers;
+    }
+}
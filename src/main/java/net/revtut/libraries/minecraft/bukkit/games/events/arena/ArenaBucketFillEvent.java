@@ -2,12 +2,18 @@ package net.revtut.libraries.minecraft.bukkit.games.events.arena;
 
 import net.revtut.libraries.minecraft.bukkit.games.arena.Arena;
 import net.revtut.libraries.minecraft.bukkit.games.player.GamePlayer;
+import org.bukkit.event.HandlerList;
 
 /**
  * Arena Bucket Fill Event
  */
 public class ArenaBucketFillEvent extends ArenaEvent {
 
+    /**
+     * Handlers list
+     */
+    private static final HandlerList handlers = new HandlerList();
+
     /**
      * Player that filled the bucket
      */
@@ -32,4 +38,20 @@ public class ArenaBucketFillEvent extends ArenaEvent {
     public GamePlayer getPlayer() {
         return player;
     }
-}
\ No newline at end of file
+
+    /**
+     * Get the handlers of the event
+     * @return handlers of the event
+     */
+    public HandlerList getHandlers() {
+        return handlers;
+    }
+
+    /**
+     * Get the handlers of the event
+     * @return handlers of the event
+     */
+    public static HandlerList getHandlerList() {
+        return handlers;
+    }
+}
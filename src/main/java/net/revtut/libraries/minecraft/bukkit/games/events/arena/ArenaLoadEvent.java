@@ -1,18 +1,66 @@
 package net.revtut.libraries.minecraft.bukkit.games.events.arena;
 
 import net.revtut.libraries.minecraft.bukkit.games.arena.Arena;
+import org.bukkit.World;
+import org.bukkit.event.HandlerList;
 
 /**
  * Arena Load Event
  */
 public class ArenaLoadEvent extends ArenaEvent {
 
+    /**
+     * Handlers list
+     */
+    private static final HandlerList handlers = new HandlerList();
+
+    /**
+     * World loaded for the arena
+     */
+    private final World world;
+
     /**
      * Constructor of ArenaLoadEvent
      *
      * @param arena arena where the event occurred
      */
     public ArenaLoadEvent(final Arena arena) {
+        this(arena, null);
+    }
+
+    /**
+     * Constructor of ArenaLoadEvent
+     *
+     * @param arena arena where the event occurred
+     * @param world world loaded for the arena
+     */
+    public ArenaLoadEvent(final Arena arena, final World world) {
         super(arena);
+        this.world = world;
+    }
+
+    /**
+     * Get the world loaded for the arena, to be initialized with {@link Arena#initWorld}.
+     * It is unloaded after the event if the arena does not use it.
+     * @return world loaded for the arena, null if none was loaded
+     */
+    public World getWorld() {
+        return world;
+    }
+
+    /**
+     * Get the handlers of the event
+     * @return handlers of the event
+     */
+    public HandlerList getHandlers() {
+        return handlers;
+    }
+
+    /**
+     * Get the handlers of the event
+     * @return handlers of the event
+     */
+    public static HandlerList getHandlerList() {
+        return handlers;
     }
-}
\ No newline at end of file
+}
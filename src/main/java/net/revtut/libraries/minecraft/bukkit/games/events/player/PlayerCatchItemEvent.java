@@ -3,12 +3,18 @@ package net.revtut.libraries.minecraft.bukkit.games.events.player;
 import net.revtut.libraries.minecraft.bukkit.games.arena.Arena;
 import net.revtut.libraries.minecraft.bukkit.games.player.GamePlayer;
 import org.bukkit.entity.Item;
+import org.bukkit.event.HandlerList;
 
 /**
  * Player Catch Item Event
  */
 public class PlayerCatchItemEvent extends PlayerEvent {
 
+    /**
+     * Handlers list
+     */
+    private static final HandlerList handlers = new HandlerList();
+
     /**
      * Item that was caught
      */
@@ -32,4 +38,20 @@ public class PlayerCatchItemEvent extends PlayerEvent {
     public Item getItem() {
         return item;
     }
+
+    /**
+     * Get the handlers of the event
+     * @return handlers of the event
+     */
+    public HandlerList getHandlers() {
+        return handlers;
+    }
+
+    /**
+     * Get the handlers of the event
+     * @return handlers of the event
+     */
+    public static HandlerList getHandlerList() {
+        return handlers;
+    }
 }
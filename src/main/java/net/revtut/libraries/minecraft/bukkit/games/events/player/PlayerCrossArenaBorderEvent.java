@@ -2,12 +2,18 @@ package net.revtut.libraries.minecraft.bukkit.games.events.player;
 
 import net.revtut.libraries.minecraft.bukkit.games.arena.Arena;
 import net.revtut.libraries.minecraft.bukkit.games.player.GamePlayer;
+import org.bukkit.event.HandlerList;
 
 /**
  * Player Cross Arena Border Event
  */
 public class PlayerCrossArenaBorderEvent extends PlayerEvent {
 
+    /**
+     * Handlers list
+     */
+    private static final HandlerList handlers = new HandlerList();
+
     /**
      * Constructor of PlayerJoinArenaEvent
      * @param player player that crossed the arena border
@@ -17,4 +23,19 @@ public class PlayerCrossArenaBorderEvent extends PlayerEvent {
         super(player, arena);
     }
 
+    /**
+     * Get the handlers of the event
+     * @return handlers of the event
+     */
+    public HandlerList getHandlers() {
+        return handlers;
+    }
+
+    /**
+     * Get the handlers of the event
+     * @return handlers of the event
+     */
+    public static HandlerList getHandlerList() {
+        return handlers;
+    }
 }
@@ -2,6 +2,7 @@ package net.revtut.libraries.minecraft.bukkit.games.events.player;
 
 import net.revtut.libraries.minecraft.bukkit.games.arena.Arena;
 import net.revtut.libraries.minecraft.bukkit.games.player.GamePlayer;
+import org.bukkit.event.HandlerList;
 import org.bukkit.inventory.ItemStack;
 
 /**
@@ -9,6 +10,11 @@ import org.bukkit.inventory.ItemStack;
  */
 public class PlayerDamageByPlayerEvent extends PlayerEvent {
 
+    /**
+     * Handlers list
+     */
+    private static final HandlerList handlers = new HandlerList();
+
     /**
      * Damager of the target
      */
@@ -71,4 +77,19 @@ public class PlayerDamageByPlayerEvent extends PlayerEvent {
         this.damage = damage;
     }
 
+    /**
+     * Get the handlers of the event
+     * @return handlers of the event
+     */
+    public HandlerList getHandlers() {
+        return handlers;
+    }
+
+    /**
+     * Get the handlers of the event
+     * @return handlers of the event
+     */
+    public static HandlerList getHandlerList() {
+        return handlers;
+    }
 }
@@ -2,12 +2,18 @@ package net.revtut.libraries.minecraft.bukkit.games.events.player;
 
 import net.revtut.libraries.minecraft.bukkit.games.arena.Arena;
 import net.revtut.libraries.minecraft.bukkit.games.player.GamePlayer;
+import org.bukkit.event.HandlerList;
 
 /**
  * Player Damage Event
  */
 public class PlayerDamageEvent extends PlayerEvent {
 
+    /**
+     * Handlers list
+     */
+    private static final HandlerList handlers = new HandlerList();
+
     /**
      * Damage of the event
      */
@@ -40,4 +46,19 @@ public class PlayerDamageEvent extends PlayerEvent {
         this.damage = damage;
     }
 
+    /**
+     * Get the handlers of the event
+     * @return handlers of the event
+     */
+    public HandlerList getHandlers() {
+        return handlers;
+    }
+
+    /**
+     * Get the handlers of the event
+     * @return handlers of the event
+     */
+    public static HandlerList getHandlerList() {
+        return handlers;
+    }
 }
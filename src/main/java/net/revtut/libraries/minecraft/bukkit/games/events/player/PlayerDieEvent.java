@@ -2,12 +2,18 @@ package net.revtut.libraries.minecraft.bukkit.games.events.player;
 
 import net.revtut.libraries.minecraft.bukkit.games.arena.Arena;
 import net.revtut.libraries.minecraft.bukkit.games.player.GamePlayer;
+import org.bukkit.event.HandlerList;
 
 /**
  * Player Die Event
  */
 public class PlayerDieEvent extends PlayerEvent {
 
+    /**
+     * Handlers list
+     */
+    private static final HandlerList handlers = new HandlerList();
+
     /**
      * Killer of the player
      */
@@ -55,4 +61,19 @@ public class PlayerDieEvent extends PlayerEvent {
         this.deathMessage = deathMessage;
     }
 
+    /**
+     * Get the handlers of the event
+     * @return handlers of the event
+     */
+    public HandlerList getHandlers() {
+        return handlers;
+    }
+
+    /**
+     * Get the handlers of the event
+     * @return handlers of the event
+     */
+    public static HandlerList getHandlerList() {
+        return handlers;
+    }
 }
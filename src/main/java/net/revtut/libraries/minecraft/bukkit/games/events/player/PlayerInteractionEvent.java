@@ -3,6 +3,7 @@ package net.revtut.libraries.minecraft.bukkit.games.events.player;
 import net.revtut.libraries.minecraft.bukkit.games.arena.Arena;
 import net.revtut.libraries.minecraft.bukkit.games.player.GamePlayer;
 import org.bukkit.block.Block;
+import org.bukkit.event.HandlerList;
 import org.bukkit.event.block.Action;
 import org.bukkit.inventory.ItemStack;
 
@@ -11,6 +12,11 @@ import org.bukkit.inventory.ItemStack;
  */
 public class PlayerInteractionEvent extends PlayerEvent {
 
+    /**
+     * Handlers list
+     */
+    private static final HandlerList handlers = new HandlerList();
+
     /**
      * Action type of the event
      */
@@ -64,4 +70,20 @@ public class PlayerInteractionEvent extends PlayerEvent {
     public ItemStack getItemStack() {
         return itemStack;
     }
+
+    /**
+     * Get the handlers of the event
+     * @return handlers of the event
+     */
+    public HandlerList getHandlers() {
+        return handlers;
+    }
+
+    /**
+     * Get the handlers of the event
+     * @return handlers of the event
+     */
+    public static HandlerList getHandlerList() {
+        return handlers;
+    }
 }
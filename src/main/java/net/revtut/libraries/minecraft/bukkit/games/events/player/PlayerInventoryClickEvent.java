@@ -2,6 +2,7 @@ package net.revtut.libraries.minecraft.bukkit.games.events.player;
 
 import net.revtut.libraries.minecraft.bukkit.games.arena.Arena;
 import net.revtut.libraries.minecraft.bukkit.games.player.GamePlayer;
+import org.bukkit.event.HandlerList;
 import org.bukkit.inventory.Inventory;
 
 /**
@@ -9,6 +10,11 @@ import org.bukkit.inventory.Inventory;
  */
 public class PlayerInventoryClickEvent extends PlayerEvent {
 
+    /**
+     * Handlers list
+     */
+    private static final HandlerList handlers = new HandlerList();
+
     /**
      * Inventory where the click occurred
      */
@@ -47,4 +53,20 @@ public class PlayerInventoryClickEvent extends PlayerEvent {
     public int getSlot() {
         return slot;
     }
+
+    /**
+     * Get the handlers of the event
+     * @return handlers of the event
+     */
+    public HandlerList getHandlers() {
+        return handlers;
+    }
+
+    /**
+     * Get the handlers of the event
+     * @return handlers of the event
+     */
+    public static HandlerList getHandlerList() {
+        return handlers;
+    }
 }
@@ -2,12 +2,18 @@ package net.revtut.libraries.minecraft.bukkit.games.events.session;
 
 import net.revtut.libraries.minecraft.bukkit.games.arena.session.GameSession;
 import net.revtut.libraries.minecraft.bukkit.games.arena.session.GameState;
+import org.bukkit.event.HandlerList;
 
 /**
  * Session Switch State Event
  */
 public class SessionSwitchStateEvent extends SessionEvent {
 
+    /**
+     * Handlers list
+     */
+    private static final HandlerList handlers = new HandlerList();
+
     /**
      * State before the switch
      */
@@ -65,4 +71,20 @@ public class SessionSwitchStateEvent extends SessionEvent {
     public void setDuration(final int duration) {
         this.duration = duration;
     }
-}
\ No newline at end of file
+
+    /**
+     * Get the handlers of the event
+     * @return handlers of the event
+     */
+    public HandlerList getHandlers() {
+        return handlers;
+    }
+
+    /**
+     * Get the handlers of the event
+     * @return handlers of the event
+     */
+    public static HandlerList getHandlerList() {
+        return handlers;
+    }
+}
@@ -1,12 +1,18 @@
 package net.revtut.libraries.minecraft.bukkit.games.events.session;
 
 import net.revtut.libraries.minecraft.bukkit.games.arena.session.GameSession;
+import org.bukkit.event.HandlerList;
 
 /**
  * Session Timer Expire Event
  */
 public class SessionTimerExpireEvent extends SessionEvent {
 
+    /**
+     * Handlers list
+     */
+    private static final HandlerList handlers = new HandlerList();
+
     /**
      * Constructor of SessionTimerExpireEvent
      * @param gameSession session where the event occurred
@@ -14,4 +20,20 @@ public class SessionTimerExpireEvent extends SessionEvent {
     public SessionTimerExpireEvent(final GameSession gameSession) {
         super(gameSession);
     }
-}
\ No newline at end of file
+
+    /**
+     * Get the handlers of the event
+     * @return handlers of the event
+     */
+    public HandlerList getHandlers() {
+        return handlers;
+    }
+
+    /**
+     * Get the handlers of the event
+     * @return handlers of the event
+     */
+    public static HandlerList getHandlerList() {
+        return handlers;
+    }
+}
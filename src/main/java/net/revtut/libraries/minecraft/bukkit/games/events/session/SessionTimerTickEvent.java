@@ -1,12 +1,18 @@
 package net.revtut.libraries.minecraft.bukkit.games.events.session;
 
 import net.revtut.libraries.minecraft.bukkit.games.arena.session.GameSession;
+import org.bukkit.event.HandlerList;
 
 /**
  * Session Timer Tick Event
  */
 public class SessionTimerTickEvent extends SessionEvent {
 
+    /**
+     * Handlers list
+     */
+    private static final HandlerList handlers = new HandlerList();
+
     /**
      * Time until timer expire
      */
@@ -27,4 +33,20 @@ public class SessionTimerTickEvent extends SessionEvent {
      * @return timer until the timer expire
      */
     public int getTime() { return time; }
-}
\ No newline at end of file
+
+    /**
+     * Get the handlers of the event
+     * @return handlers of the event
+     */
+    public HandlerList getHandlers() {
+        return handlers;
+    }
+
+    /**
+     * Get the handlers of the event
+     * @return handlers of the event
+     */
+    public static HandlerList getHandlerList() {
+        return handlers;
+    }
+}
@@ -114,7 +114,11 @@ public class GamePlayer extends ServerPlayer implements Winner {
      * @param state new state of the player
      */
     public void updateState(final PlayerState state) {
+        final PlayerState previous = this.state;
         this.state = state;
+
+        if(currentArena != null && previous != state)
+            currentArena.updateMember(this);
     }
 
     /**
@@ -0,0 +1,18 @@
+package net.revtut.libraries.minecraft.bukkit.games.player;
+
+/**
+ * Enum with the modes used to emit the walk and jump events
+ */
+public enum MoveMode {
+
+    /**
+     * The events are emitted on every movement of the player
+     */
+    EVERY_MOVE,
+
+    /**
+     * The events are emitted when the block of the player changes or a distance or time threshold passes,
+     * with the distance walked since the last emission
+     */
+    SAMPLED
+}
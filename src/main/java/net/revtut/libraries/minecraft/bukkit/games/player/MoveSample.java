@@ -0,0 +1,160 @@
+package net.revtut.libraries.minecraft.bukkit.games.player;
+
+import org.bukkit.Location;
+
+/**
+ * Move Sample.
+ * Movement of a player accumulated between two emissions of the walk and jump events.
+ */
+public class MoveSample {
+
+    /**
+     * Block where the last emission occurred
+     */
+    private int anchorX, anchorY, anchorZ;
+
+    /**
+     * Height where the last emission occurred
+     */
+    private double anchorHeight;
+
+    /**
+     * Time of the last emission in milliseconds, 0 if there was none
+     */
+    private long anchorTime;
+
+    /**
+     * Distance walked since the last emission
+     */
+    private double walked;
+
+    /**
+     * Distance and height of the last emission
+     */
+    private double distance, height;
+
+    /**
+     * Block of the anchor before the last movement, restored if the movement is rejected
+     */
+    private int savedX, savedY, savedZ;
+
+    /**
+     * Height of the anchor and distance walked before the last movement
+     */
+    private double savedHeight, savedWalked;
+
+    /**
+     * Time of the anchor before the last movement
+     */
+    private long savedTime;
+
+    /**
+     * Get the distance walked on the last emission
+     * @return distance walked
+     */
+    public double getDistance() {
+        return distance;
+    }
+
+    /**
+     * Get the height changed on the last emission
+     * @return height changed, positive if the player went up
+     */
+    public double getHeight() {
+        return height;
+    }
+
+    /**
+     * Check if there was a emission
+     * @return true if there was a emission, false otherwise
+     */
+    boolean isAnchored() {
+        return anchorTime != 0;
+    }
+
+    /**
+     * Accumulate a movement
+     * @param from location before the movement
+     * @param to location after the movement
+     */
+    void accumulate(final Location from, final Location to) {
+        final double deltaX = to.getX() - from.getX();
+        final double deltaY = to.getY() - from.getY();
+        final double deltaZ = to.getZ() - from.getZ();
+        walked += Math.sqrt((deltaX * deltaX) + (deltaY * deltaY) + (deltaZ * deltaZ));
+    }
+
+    /**
+     * Check if the emission is due
+     * @param to location after the movement
+     * @param now current time in milliseconds
+     * @param distanceThreshold distance that forces a emission
+     * @param timeThreshold time in milliseconds that forces a emission if the player moved
+     * @return true if due, false otherwise
+     */
+    boolean isDue(final Location to, final long now, final double distanceThreshold, final long timeThreshold) {
+        if(to.getBlockX() != anchorX || to.getBlockY() != anchorY || to.getBlockZ() != anchorZ)
+            return true;
+        if(walked >= distanceThreshold)
+            return true;
+        return walked > 0 && now - anchorTime >= timeThreshold;
+    }
+
+    /**
+     * Emit the accumulated movement and start accumulating from a location
+     * @param to location after the movement
+     * @param now current time in milliseconds
+     */
+    void emit(final Location to, final long now) {
+        emit(walked, to.getY() - anchorHeight);
+        anchor(to, now);
+    }
+
+    /**
+     * Set the values of the emission
+     * @param distance distance walked
+     * @param height height changed
+     */
+    void emit(final double distance, final double height) {
+        this.distance = distance;
+        this.height = height;
+    }
+
+    /**
+     * Save the anchor and the distance walked before a movement
+     */
+    void save() {
+        this.savedX = anchorX;
+        this.savedY = anchorY;
+        this.savedZ = anchorZ;
+        this.savedHeight = anchorHeight;
+        this.savedTime = anchorTime;
+        this.savedWalked = walked;
+    }
+
+    /**
+     * Restore the anchor and the distance walked saved before the last movement, as if it never happened
+     */
+    void restore() {
+        this.anchorX = savedX;
+        this.anchorY = savedY;
+        this.anchorZ = savedZ;
+        this.anchorHeight = savedHeight;
+        this.anchorTime = savedTime;
+        this.walked = savedWalked;
+    }
+
+    /**
+     * Start accumulating from a location
+     * @param location location to start from
+     * @param now current time in milliseconds
+     */
+    void anchor(final Location location, final long now) {
+        this.anchorX = location.getBlockX();
+        this.anchorY = location.getBlockY();
+        this.anchorZ = location.getBlockZ();
+        this.anchorHeight = location.getY();
+        this.anchorTime = now;
+        this.walked = 0;
+    }
+}
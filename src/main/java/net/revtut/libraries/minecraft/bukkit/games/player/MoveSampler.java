@@ -0,0 +1,183 @@
+package net.revtut.libraries.minecraft.bukkit.games.player;
+
+import net.revtut.libraries.minecraft.bukkit.maths.Maths;
+import org.bukkit.Location;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Move Sampler.
+ * Decides when the movement of a player emits the walk and jump events. It is used from the main thread only.
+ */
+public class MoveSampler {
+
+    /**
+     * Default distance that forces a emission
+     */
+    public static final double DEFAULT_DISTANCE_THRESHOLD = 1.0;
+
+    /**
+     * Default time in milliseconds that forces a emission if the player moved
+     */
+    public static final long DEFAULT_TIME_THRESHOLD = 1000;
+
+    /**
+     * Mode used to emit the events
+     */
+    private MoveMode mode;
+
+    /**
+     * Distance that forces a emission
+     */
+    private double distanceThreshold;
+
+    /**
+     * Time in milliseconds that forces a emission if the player moved
+     */
+    private long timeThreshold;
+
+    /**
+     * Movement of each player since its last emission
+     */
+    private final Map<UUID, MoveSample> samples;
+
+    /**
+     * Number of movements that emitted and that were coalesced
+     */
+    private long emitted, coalesced;
+
+    /**
+     * Constructor of MoveSampler
+     */
+    public MoveSampler() {
+        this.mode = MoveMode.EVERY_MOVE;
+        this.distanceThreshold = DEFAULT_DISTANCE_THRESHOLD;
+        this.timeThreshold = DEFAULT_TIME_THRESHOLD;
+        this.samples = new HashMap<>();
+        this.emitted = 0;
+        this.coalesced = 0;
+    }
+
+    /**
+     * Get the mode used to emit the events
+     * @return mode used to emit the events
+     */
+    public MoveMode getMode() {
+        return mode;
+    }
+
+    /**
+     * Set the mode used to emit the events
+     * @param mode new mode
+     */
+    public void setMode(final MoveMode mode) {
+        this.mode = mode;
+        samples.clear();
+    }
+
+    /**
+     * Get the distance that forces a emission
+     * @return distance that forces a emission
+     */
+    public double getDistanceThreshold() {
+        return distanceThreshold;
+    }
+
+    /**
+     * Set the distance that forces a emission
+     * @param distanceThreshold new distance
+     */
+    public void setDistanceThreshold(final double distanceThreshold) {
+        this.distanceThreshold = distanceThreshold;
+    }
+
+    /**
+     * Get the time in milliseconds that forces a emission if the player moved
+     * @return time that forces a emission
+     */
+    public long getTimeThreshold() {
+        return timeThreshold;
+    }
+
+    /**
+     * Set the time in milliseconds that forces a emission if the player moved
+     * @param timeThreshold new time
+     */
+    public void setTimeThreshold(final long timeThreshold) {
+        this.timeThreshold = timeThreshold;
+    }
+
+    /**
+     * Get the number of movements that emitted the events
+     * @return number of emitted movements
+     */
+    public long getEmitted() {
+        return emitted;
+    }
+
+    /**
+     * Get the number of movements coalesced into a later emission
+     * @return number of coalesced movements
+     */
+    public long getCoalesced() {
+        return coalesced;
+    }
+
+    /**
+     * Sample a movement of a player
+     * @param uuid uuid of the player
+     * @param from location before the movement
+     * @param to location after the movement
+     * @return sample with the distance and height to emit, null if the movement was coalesced
+     */
+    public MoveSample sample(final UUID uuid, final Location from, final Location to) {
+        final MoveSample sample = samples.computeIfAbsent(uuid, key -> new MoveSample());
+
+        if(mode == MoveMode.EVERY_MOVE) {
+            sample.emit(Maths.distanceBetween(from, to), to.getY() - from.getY());
+            emitted++;
+            return sample;
+        }
+
+        final long now = System.currentTimeMillis();
+        if(!sample.isAnchored())
+            sample.anchor(from, now);
+
+        sample.save();
+        sample.accumulate(from, to);
+        if(!sample.isDue(to, now, distanceThreshold, timeThreshold)) {
+            coalesced++;
+            return null;
+        }
+
+        sample.emit(to, now);
+        emitted++;
+        return sample;
+    }
+
+    /**
+     * Reject the last movement of a player, such as when its move event was cancelled, so the next sample is
+     * measured from where the player was kept instead of from where it was sent back
+     * @param uuid uuid of the player
+     */
+    public void reject(final UUID uuid) {
+        if(mode == MoveMode.EVERY_MOVE)
+            return;
+
+        final MoveSample sample = samples.get(uuid);
+        if(sample != null)
+            sample.restore();
+    }
+
+    /**
+     * Forget the movement of a player, so its next movement starts a new sample. Must be called when the player
+     * is moved without a move event, such as on teleports, world changes and arena switches, otherwise the next
+     * emission is measured from where the player was before.
+     * @param uuid uuid of the player
+     */
+    public void remove(final UUID uuid) {
+        samples.remove(uuid);
+    }
+}
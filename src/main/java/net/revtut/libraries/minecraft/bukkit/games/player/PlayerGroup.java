@@ -0,0 +1,147 @@
+package net.revtut.libraries.minecraft.bukkit.games.player;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Player Group.
+ * Members of a arena or team, also split by their state so the players on a state are read without filtering.
+ * The views returned are read only and follow the changes of the group. It is used from the main thread only.
+ */
+public class PlayerGroup {
+
+    /**
+     * Members of the group in the order they were added
+     */
+    private final List<GamePlayer> players;
+
+    /**
+     * Read only view of the members
+     */
+    private final List<GamePlayer> playersView;
+
+    /**
+     * State each member is indexed under
+     */
+    private final Map<GamePlayer, PlayerState> states;
+
+    /**
+     * Members on each state
+     */
+    private final Map<PlayerState, Set<GamePlayer>> statePlayers;
+
+    /**
+     * Read only view of the members on each state
+     */
+    private final Map<PlayerState, Set<GamePlayer>> statePlayersViews;
+
+    /**
+     * Constructor of PlayerGroup
+     */
+    public PlayerGroup() {
+        this.players = new ArrayList<>();
+        this.playersView = Collections.unmodifiableList(players);
+        this.states = new HashMap<>();
+        this.statePlayers = new EnumMap<>(PlayerState.class);
+        this.statePlayersViews = new EnumMap<>(PlayerState.class);
+        for(final PlayerState state : PlayerState.values()) {
+            final Set<GamePlayer> members = new LinkedHashSet<>();
+            statePlayers.put(state, members);
+            statePlayersViews.put(state, Collections.unmodifiableSet(members));
+        }
+    }
+
+    /**
+     * Get all the members
+     * @return read only view of the members
+     */
+    public List<GamePlayer> getPlayers() {
+        return playersView;
+    }
+
+    /**
+     * Get the members on a state
+     * @param state state of the members
+     * @return read only view of the members on that state
+     */
+    public Collection<GamePlayer> getPlayers(final PlayerState state) {
+        return statePlayersViews.get(state);
+    }
+
+    /**
+     * Get the number of members
+     * @return number of members
+     */
+    public int size() {
+        return players.size();
+    }
+
+    /**
+     * Get the number of members on a state
+     * @param state state of the members
+     * @return number of members on that state
+     */
+    public int size(final PlayerState state) {
+        return statePlayers.get(state).size();
+    }
+
+    /**
+     * Check if a player is a member
+     * @param player player to be checked
+     * @return true if is a member, false otherwise
+     */
+    public boolean contains(final GamePlayer player) {
+        return states.containsKey(player);
+    }
+
+    /**
+     * Add a member under its current state
+     * @param player player to be added
+     * @return true if added, false if it was already a member
+     */
+    public boolean add(final GamePlayer player) {
+        if(states.containsKey(player))
+            return false;
+
+        players.add(player);
+        states.put(player, player.getState());
+        statePlayers.get(player.getState()).add(player);
+        return true;
+    }
+
+    /**
+     * Remove a member
+     * @param player player to be removed
+     * @return true if removed, false if it was not a member
+     */
+    public boolean remove(final GamePlayer player) {
+        final PlayerState state = states.remove(player);
+        if(state == null)
+            return false;
+
+        players.remove(player);
+        statePlayers.get(state).remove(player);
+        return true;
+    }
+
+    /**
+     * Move a member to its current state
+     * @param player player whose state changed
+     */
+    public void update(final GamePlayer player) {
+        final PlayerState previous = states.get(player);
+        if(previous == null || previous == player.getState())
+            return;
+
+        statePlayers.get(previous).remove(player);
+        statePlayers.get(player.getState()).add(player);
+        states.put(player, player.getState());
+    }
+}
@@ -0,0 +1,177 @@
+package net.revtut.libraries.minecraft.bukkit.games.player;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Player Registry.
+ * Game players keyed by their uuid. Lookups are lock free so they can be done from async threads,
+ * and iteration uses a snapshot that is only rebuilt after the registry changes.
+ */
+public class PlayerRegistry {
+
+    /**
+     * Registered players
+     */
+    private final Map<UUID, GamePlayer> players;
+
+    /**
+     * Number of changes done to the registry, used to know when the snapshot is outdated
+     */
+    private final AtomicLong version;
+
+    /**
+     * Last snapshot of the registered players
+     */
+    private volatile Snapshot snapshot;
+
+    /**
+     * Number of players registered and unregistered
+     */
+    private final AtomicLong registrations, unregistrations;
+
+    /**
+     * Highest number of players registered at the same time
+     */
+    private final AtomicLong peakSize;
+
+    /**
+     * Constructor of PlayerRegistry
+     */
+    public PlayerRegistry() {
+        this.players = new ConcurrentHashMap<>();
+        this.version = new AtomicLong();
+        this.snapshot = new Snapshot(0, Collections.<GamePlayer>emptyList());
+        this.registrations = new AtomicLong();
+        this.unregistrations = new AtomicLong();
+        this.peakSize = new AtomicLong();
+    }
+
+    /**
+     * Get a registered player
+     * @param uuid uuid of the player
+     * @return player with that uuid, null if not registered
+     */
+    public GamePlayer get(final UUID uuid) {
+        return players.get(uuid);
+    }
+
+    /**
+     * Check if a player is registered
+     * @param uuid uuid of the player
+     * @return true if registered, false otherwise
+     */
+    public boolean contains(final UUID uuid) {
+        return players.containsKey(uuid);
+    }
+
+    /**
+     * Register a player, replacing any player with the same uuid
+     * @param player player to be registered
+     */
+    public void register(final GamePlayer player) {
+        players.put(player.getUuid(), player);
+        version.incrementAndGet();
+        registrations.incrementAndGet();
+
+        final int size = players.size();
+        long peak;
+        do {
+            peak = peakSize.get();
+        } while(size > peak && !peakSize.compareAndSet(peak, size));
+    }
+
+    /**
+     * Unregister a player
+     * @param player player to be unregistered
+     * @return true if it was registered, false otherwise
+     */
+    public boolean unregister(final GamePlayer player) {
+        if(!players.remove(player.getUuid(), player))
+            return false;
+
+        version.incrementAndGet();
+        unregistrations.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * Get a snapshot of the registered players. It is not updated by later changes and can not be modified.
+     * @return registered players
+     */
+    public List<GamePlayer> getPlayers() {
+        final Snapshot current = snapshot;
+        final long currentVersion = version.get();
+        if(current.version == currentVersion)
+            return current.players;
+
+        // Version is read before copying, so a copy racing with a change is rebuilt on the next call
+        final List<GamePlayer> copy = Collections.unmodifiableList(new ArrayList<>(players.values()));
+        snapshot = new Snapshot(currentVersion, copy);
+        return copy;
+    }
+
+    /**
+     * Get the number of registered players
+     * @return number of registered players
+     */
+    public int size() {
+        return players.size();
+    }
+
+    /**
+     * Get the highest number of players registered at the same time
+     * @return peak number of registered players
+     */
+    public long getPeakSize() {
+        return peakSize.get();
+    }
+
+    /**
+     * Get the number of players registered since the start
+     * @return number of registrations
+     */
+    public long getRegistrations() {
+        return registrations.get();
+    }
+
+    /**
+     * Get the number of players unregistered since the start
+     * @return number of unregistrations
+     */
+    public long getUnregistrations() {
+        return unregistrations.get();
+    }
+
+    /**
+     * Snapshot.
+     * Copy of the registered players at a given version of the registry.
+     */
+    private static final class Snapshot {
+
+        /**
+         * Version of the registry when the copy was done
+         */
+        private final long version;
+
+        /**
+         * Copy of the registered players
+         */
+        private final List<GamePlayer> players;
+
+        /**
+         * Constructor of Snapshot
+         * @param version version of the registry
+         * @param players copy of the registered players
+         */
+        private Snapshot(final long version, final List<GamePlayer> players) {
+            this.version = version;
+            this.players = players;
+        }
+    }
+}
@@ -0,0 +1,266 @@
+package net.revtut.libraries.minecraft.bukkit.games.player;
+
+import net.revtut.libraries.minecraft.bukkit.games.arena.Arena;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Visibility Manager.
+ * Keeps who sees whom as per arena groups: players only see the players of their arena, and spectators are only
+ * seen by other spectators. When a player joins, leaves or changes state only the pairs whose visibility changed
+ * are queued, and the queue is applied once per tick skipping the pairs that cancelled out. It is used from the
+ * main thread only.
+ */
+public class VisibilityManager {
+
+    /**
+     * Plugin owner of the tasks
+     */
+    private final Plugin plugin;
+
+    /**
+     * View applied to each player
+     */
+    private final Map<UUID, View> views;
+
+    /**
+     * Visibility to be applied on the next tick, by viewer and target
+     */
+    private final Map<UUID, Map<UUID, Boolean>> pending;
+
+    /**
+     * True if the pending visibility is scheduled to be applied
+     */
+    private boolean scheduled;
+
+    /**
+     * Number of visibility changes queued, applied and skipped because nothing changed
+     */
+    private long queued, applied, skipped;
+
+    /**
+     * Constructor of VisibilityManager
+     * @param plugin plugin owner of the tasks
+     */
+    public VisibilityManager(final Plugin plugin) {
+        this.plugin = plugin;
+        this.views = new HashMap<>();
+        this.pending = new LinkedHashMap<>();
+        this.scheduled = false;
+        this.queued = 0;
+        this.applied = 0;
+        this.skipped = 0;
+    }
+
+    /**
+     * Get the number of visibility changes queued
+     * @return number of queued changes
+     */
+    public long getQueued() {
+        return queued;
+    }
+
+    /**
+     * Get the number of visibility changes sent to the players
+     * @return number of applied changes
+     */
+    public long getApplied() {
+        return applied;
+    }
+
+    /**
+     * Get the number of queued changes that were not sent because the player already had that visibility
+     * @return number of skipped changes
+     */
+    public long getSkipped() {
+        return skipped;
+    }
+
+    /**
+     * Update the visibility of a player after it joined, left or changed state on a arena
+     * @param player player to be updated
+     * @param arena arena of the player, null if it is on none
+     */
+    public void update(final GamePlayer player, final Arena arena) {
+        final UUID uuid = player.getUuid();
+        final View view = new View(arena, arena != null && player.getState() == PlayerState.SPECTATOR);
+        final View previous = views.put(uuid, view);
+        if(view.equals(previous))
+            return;
+
+        // Players start seeing the whole server, so the first update hides everyone outside its arena
+        if(previous == null) {
+            for(final Player target : Bukkit.getOnlinePlayers()) {
+                final UUID targetUuid = target.getUniqueId();
+                final View other = views.get(targetUuid);
+                if(targetUuid.equals(uuid) || (other != null && arena != null && other.arena == arena))
+                    continue;
+
+                queue(uuid, targetUuid, false);
+                queue(targetUuid, uuid, false);
+            }
+        }
+
+        // Only the members of the previous and the new arena may see it differently
+        if(previous != null && previous.arena != null)
+            diff(uuid, previous, view, previous.arena);
+        if(arena != null && (previous == null || previous.arena != arena))
+            diff(uuid, previous, view, arena);
+    }
+
+    /**
+     * Hide the whole server to a player and that player to the whole server
+     * @param player player to be hidden
+     */
+    public void hideServer(final Player player) {
+        final UUID uuid = player.getUniqueId();
+        views.put(uuid, new View(null, false));
+        for(final Player target : Bukkit.getOnlinePlayers()) {
+            if(target.getUniqueId().equals(uuid))
+                continue;
+
+            queue(uuid, target.getUniqueId(), false);
+            queue(target.getUniqueId(), uuid, false);
+        }
+    }
+
+    /**
+     * Forget a player that left the server
+     * @param uuid uuid of the player
+     */
+    public void remove(final UUID uuid) {
+        views.remove(uuid);
+        pending.remove(uuid);
+    }
+
+    /**
+     * Apply the pending visibility now instead of on the next tick
+     */
+    public void flush() {
+        for(final Map.Entry<UUID, Map<UUID, Boolean>> entry : pending.entrySet()) {
+            final Player viewer = Bukkit.getPlayer(entry.getKey());
+            if(viewer == null)
+                continue;
+
+            for(final Map.Entry<UUID, Boolean> change : entry.getValue().entrySet()) {
+                final Player target = Bukkit.getPlayer(change.getKey());
+                if(target == null || viewer.canSee(target) == change.getValue()) {
+                    skipped++;
+                    continue;
+                }
+
+                if(change.getValue())
+                    viewer.showPlayer(target);
+                else
+                    viewer.hidePlayer(target);
+                applied++;
+            }
+        }
+        pending.clear();
+        scheduled = false;
+    }
+
+    /**
+     * Queue the changes of visibility between a player and the members of a arena
+     * @param uuid uuid of the player
+     * @param previous view previously applied to the player, null if none
+     * @param view new view of the player
+     * @param arena arena whose members are compared
+     */
+    private void diff(final UUID uuid, final View previous, final View view, final Arena arena) {
+        for(final GamePlayer member : arena.getAllPlayers()) {
+            final View other = views.get(member.getUuid());
+            if(other == null || member.getUuid().equals(uuid))
+                continue;
+
+            final boolean sees = sees(view, other), seen = sees(other, view);
+            if(previous == null || sees != sees(previous, other))
+                queue(uuid, member.getUuid(), sees);
+            if(previous == null || seen != sees(other, previous))
+                queue(member.getUuid(), uuid, seen);
+        }
+    }
+
+    /**
+     * Check if a view sees another one
+     * @param viewer view of the viewer
+     * @param target view of the target
+     * @return true if sees, false otherwise
+     */
+    private static boolean sees(final View viewer, final View target) {
+        return viewer.arena != null && viewer.arena == target.arena && (!target.spectator || viewer.spectator);
+    }
+
+    /**
+     * Queue a change of visibility to be applied on the next tick
+     * @param viewer uuid of the viewer
+     * @param target uuid of the target
+     * @param visible true to show the target, false to hide it
+     */
+    private void queue(final UUID viewer, final UUID target, final boolean visible) {
+        pending.computeIfAbsent(viewer, key -> new LinkedHashMap<>()).put(target, visible);
+        queued++;
+
+        if(scheduled)
+            return;
+        scheduled = true;
+        Bukkit.getScheduler().runTask(plugin, this::flush);
+    }
+
+    /**
+     * View.
+     * Arena and spectator flag a player was last shown with.
+     */
+    private static final class View {
+
+        /**
+         * Arena of the player, null if it is on none
+         */
+        private final Arena arena;
+
+        /**
+         * True if the player is spectating
+         */
+        private final boolean spectator;
+
+        /**
+         * Constructor of View
+         * @param arena arena of the player
+         * @param spectator true if the player is spectating
+         */
+        private View(final Arena arena, final boolean spectator) {
+            this.arena = arena;
+            this.spectator = spectator;
+        }
+
+        /**
+         * Check if a object is equal to the view
+         * @param obj object to be compared
+         * @return true if equal, false otherwise
+         */
+        @Override
+        public boolean equals(final Object obj) {
+            if(!(obj instanceof View))
+                return false;
+
+            final View view = (View) obj;
+            return arena == view.arena && spectator == view.spectator;
+        }
+
+        /**
+         * Get the hash code of the view
+         * @return hash code of the view
+         */
+        @Override
+        public int hashCode() {
+            return Objects.hash(System.identityHashCode(arena), spectator);
+        }
+    }
+}
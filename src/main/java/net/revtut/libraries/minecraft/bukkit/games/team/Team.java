@@ -1,10 +1,13 @@
 package net.revtut.libraries.minecraft.bukkit.games.team;
 
 import net.revtut.libraries.Libraries;
+import net.revtut.libraries.minecraft.bukkit.games.GameAPI;
+import net.revtut.libraries.minecraft.bukkit.games.arena.Arena;
 import net.revtut.libraries.minecraft.bukkit.games.events.player.PlayerJoinTeamEvent;
 import net.revtut.libraries.minecraft.bukkit.games.events.player.PlayerLeaveTeamEvent;
 import net.revtut.libraries.minecraft.bukkit.games.events.player.PlayerSpectateTeamEvent;
 import net.revtut.libraries.minecraft.bukkit.games.player.GamePlayer;
+import net.revtut.libraries.minecraft.bukkit.games.player.PlayerGroup;
 import net.revtut.libraries.minecraft.bukkit.games.player.PlayerState;
 import net.revtut.libraries.minecraft.bukkit.games.utils.Color;
 import net.revtut.libraries.minecraft.bukkit.games.utils.Winner;
@@ -12,9 +15,9 @@ import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
-import java.util.stream.Collectors;
 
 /**
  * Team Object
@@ -32,9 +35,9 @@ public class Team implements Winner {
     private final Color color;
 
     /**
-     * List with all players on the team
+     * Players on the team
      */
-    private final List<GamePlayer> players;
+    private final PlayerGroup players;
 
     /**
      * Default constructor of Team
@@ -51,7 +54,7 @@ public class Team implements Winner {
     public Team(final String name, final Color color) {
         this.name = name;
         this.color = color;
-        this.players = new ArrayList<>();
+        this.players = new PlayerGroup();
     }
 
     /**
@@ -72,10 +75,10 @@ public class Team implements Winner {
 
     /**
      * Get the players on the team
-     * @return players on the team
+     * @return read only view of the players on the team
      */
     public List<GamePlayer> getAllPlayers() {
-        return players;
+        return players.getPlayers();
     }
 
     /**
@@ -84,7 +87,16 @@ public class Team implements Winner {
      * @return players that correspond to that state
      */
     public List<GamePlayer> getPlayers(final PlayerState state) {
-        return players.stream().filter(player -> player.getState() == state).collect(Collectors.toList());
+        return new ArrayList<>(players.getPlayers(state));
+    }
+
+    /**
+     * Get players that are currently on a state without copying them
+     * @param state state of the players
+     * @return read only view of the players that correspond to that state
+     */
+    public Collection<GamePlayer> getPlayersView(final PlayerState state) {
+        return players.getPlayers(state);
     }
 
     /**
@@ -95,13 +107,30 @@ public class Team implements Winner {
         return players.size();
     }
 
+    /**
+     * Get the number of players that are currently on a state
+     * @param state state of the players
+     * @return number of players on that state
+     */
+    public int getSize(final PlayerState state) {
+        return players.size(state);
+    }
+
+    /**
+     * Move a player of the team to its current state
+     * @param player player whose state changed
+     */
+    public void updatePlayer(final GamePlayer player) {
+        players.update(player);
+    }
+
     /**
      * Check if a player belongs to this team
      * @param player player to be checked
      * @return true if belongs, false otherwise
      */
     public boolean containsPlayer(final GamePlayer player) {
-        return containsPlayer(player.getUuid());
+        return players.contains(player);
     }
 
     /**
@@ -110,10 +139,8 @@ public class Team implements Winner {
      * @return true if belongs, false otherwise
      */
     public boolean containsPlayer(final UUID player) {
-        for(final GamePlayer target : players)
-            if(player.equals(target.getUuid()))
-                return true;
-        return false;
+        final GamePlayer target = GameAPI.getInstance().getPlayer(player);
+        return target != null && players.contains(target);
     }
 
     /**
@@ -135,6 +162,8 @@ public class Team implements Winner {
         broadcastMessage(event.getJoinMessage());
 
         players.add(player);
+        if(player.getCurrentArena() != null)
+            player.getCurrentArena().addMember(player);
 
         return true;
     }
@@ -158,6 +187,9 @@ public class Team implements Winner {
         broadcastMessage(event.getLeaveMessage());
 
         players.remove(player);
+        final Arena arena = GameAPI.getInstance().getPlayerArena(player.getUuid());
+        if(arena != null)
+            arena.removeMember(player);
 
         return true;
     }
@@ -181,6 +213,8 @@ public class Team implements Winner {
         broadcastMessage(event.getJoinMessage());
 
         players.add(player);
+        if(player.getCurrentArena() != null)
+            player.getCurrentArena().addMember(player);
 
         return true;
     }
@@ -10,6 +10,11 @@ import java.util.*;
  */
 public class ServerPlayer {
 
+    /**
+     * Buffer where statistic increments are written to, null when not persisted
+     */
+    private static StatisticBuffer statisticBuffer;
+
     /**
      * Player owner of this data
      */
@@ -55,6 +60,22 @@ public class ServerPlayer {
         this.achievements = new ArrayList<>();
     }
 
+    /**
+     * Get the buffer where statistic increments are written to
+     * @return statistic buffer, null when not persisted
+     */
+    public static StatisticBuffer getStatisticBuffer() {
+        return statisticBuffer;
+    }
+
+    /**
+     * Set the buffer where statistic increments are written to
+     * @param buffer statistic buffer, null to stop persisting increments
+     */
+    public static void setStatisticBuffer(final StatisticBuffer buffer) {
+        statisticBuffer = buffer;
+    }
+
     /**
      * Get the UUID of the player
      * @return UUID of the player
@@ -138,6 +159,10 @@ public class ServerPlayer {
      */
     public void incrementStatistic(final Statistic statistic, final long value) {
         addStatistic(statistic, getStatistic(statistic) + value);
+
+        final StatisticBuffer buffer = statisticBuffer;
+        if(buffer != null)
+            buffer.record(uuid, statistic, value);
     }
 
     /**
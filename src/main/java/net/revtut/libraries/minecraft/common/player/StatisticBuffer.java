@@ -0,0 +1,220 @@
+package net.revtut.libraries.minecraft.common.player;
+
+import net.revtut.libraries.generic.database.CompiledStatement;
+import net.revtut.libraries.generic.database.Database;
+import net.revtut.libraries.generic.database.DatabaseAPI;
+
+import java.sql.Statement;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Statistic Buffer.
+ * Coalesces statistic increments in memory and writes them to the database in the background
+ * as additive upserts, so increments from several servers are never lost.
+ * The table must have the columns UUID, Statistic and Value with (UUID, Statistic) as primary key.
+ */
+public class StatisticBuffer {
+
+    /**
+     * Maximum number of rows sent per batch
+     */
+    private static final int BATCH_SIZE = 500;
+
+    /**
+     * Database where the statistics are written
+     */
+    private final Database database;
+
+    /**
+     * Additive upsert of a statistic
+     */
+    private final CompiledStatement upsert;
+
+    /**
+     * Pending increments per player
+     */
+    private Map<UUID, Map<Statistic, Long>> pending;
+
+    /**
+     * Executor that writes the statistics
+     */
+    private final ScheduledExecutorService executor;
+
+    /**
+     * Number of rows written and number of rows that failed to be written
+     */
+    private final AtomicLong writtenRows, failedRows;
+
+    /**
+     * Constructor of StatisticBuffer
+     * @param database database where the statistics are written
+     * @param tableName name of the statistics table
+     * @param flushInterval interval (in milliseconds) between each flush
+     */
+    public StatisticBuffer(final Database database, final String tableName, final long flushInterval) {
+        this.database = database;
+        this.upsert = DatabaseAPI.compileUpsert(database, tableName, Arrays.asList("UUID", "Statistic"), Collections.singletonList("Value"), true);
+        this.pending = new HashMap<>();
+        this.writtenRows = new AtomicLong();
+        this.failedRows = new AtomicLong();
+
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "Statistic Buffer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.executor.scheduleWithFixedDelay(() -> write(drain()), flushInterval, flushInterval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Record a increment of a statistic
+     * @param uuid uuid of the player
+     * @param statistic statistic that was incremented
+     * @param value value of the increment
+     */
+    public synchronized void record(final UUID uuid, final Statistic statistic, final long value) {
+        if(value == 0)
+            return;
+
+        pending.computeIfAbsent(uuid, key -> new HashMap<>()).merge(statistic, value, Long::sum);
+    }
+
+    /**
+     * Write all the pending increments in the background
+     */
+    public void flush() {
+        final Map<UUID, Map<Statistic, Long>> increments = drain();
+        if(!increments.isEmpty())
+            executor.execute(() -> write(increments));
+    }
+
+    /**
+     * Write the pending increments of some players in the background
+     * @param players uuid of the players
+     */
+    public void flush(final Collection<UUID> players) {
+        final Map<UUID, Map<Statistic, Long>> increments = drain(players);
+        if(!increments.isEmpty())
+            executor.execute(() -> write(increments));
+    }
+
+    /**
+     * Write the pending increments of a player in the background
+     * @param uuid uuid of the player
+     */
+    public void flush(final UUID uuid) {
+        flush(Collections.singleton(uuid));
+    }
+
+    /**
+     * Write all the pending increments and stop the buffer
+     * @param timeout maximum time (in milliseconds) to wait for the writes
+     * @return true if everything was written in time, false otherwise
+     */
+    public boolean close(final long timeout) {
+        flush();
+        executor.shutdown();
+        try {
+            return executor.awaitTermination(timeout, TimeUnit.MILLISECONDS);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Get the number of players with pending increments
+     * @return number of players with pending increments
+     */
+    public synchronized int getPendingPlayers() {
+        return pending.size();
+    }
+
+    /**
+     * Get the number of rows written to the database
+     * @return number of rows written
+     */
+    public long getWrittenRows() {
+        return writtenRows.get();
+    }
+
+    /**
+     * Get the number of rows that failed to be written and were kept for the next flush
+     * @return number of rows that failed to be written
+     */
+    public long getFailedRows() {
+        return failedRows.get();
+    }
+
+    /**
+     * Take all the pending increments
+     * @return pending increments
+     */
+    private synchronized Map<UUID, Map<Statistic, Long>> drain() {
+        final Map<UUID, Map<Statistic, Long>> increments = pending;
+        pending = new HashMap<>();
+        return increments;
+    }
+
+    /**
+     * Take the pending increments of some players
+     * @param players uuid of the players
+     * @return pending increments of the players
+     */
+    private synchronized Map<UUID, Map<Statistic, Long>> drain(final Collection<UUID> players) {
+        final Map<UUID, Map<Statistic, Long>> increments = new HashMap<>();
+        for(final UUID uuid : players) {
+            final Map<Statistic, Long> statistics = pending.remove(uuid);
+            if(statistics != null)
+                increments.put(uuid, statistics);
+        }
+        return increments;
+    }
+
+    /**
+     * Write increments to the database. Rows that could not be written are kept for the next flush.
+     * @param increments increments to be written
+     */
+    private void write(final Map<UUID, Map<Statistic, Long>> increments) {
+        if(increments.isEmpty())
+            return;
+
+        final List<UUID> players = new ArrayList<>();
+        final List<Statistic> statistics = new ArrayList<>();
+        final List<List<Object>> rows = new ArrayList<>();
+        for(final Map.Entry<UUID, Map<Statistic, Long>> player : increments.entrySet()) {
+            for(final Map.Entry<Statistic, Long> statistic : player.getValue().entrySet()) {
+                players.add(player.getKey());
+                statistics.add(statistic.getKey());
+                rows.add(Arrays.asList(player.getKey().toString(), statistic.getKey().getName(), statistic.getValue()));
+            }
+        }
+
+        // Add to the existing rows or insert them, in a single round-trip per batch
+        final int[] results = upsert.executeBatch(database, rows, BATCH_SIZE, false);
+        for(int index = 0; index < results.length; index++)
+            onWritten(results[index], index, players, statistics, rows);
+    }
+
+    /**
+     * Account the result of writing a row, keeping it for the next flush if it failed
+     * @param result update count of the row
+     * @param index index of the row
+     * @param players players of each row
+     * @param statistics statistics of each row
+     * @param rows parameters of each row
+     */
+    private void onWritten(final int result, final int index, final List<UUID> players, final List<Statistic> statistics, final List<List<Object>> rows) {
+        if(result == Statement.EXECUTE_FAILED) {
+            failedRows.incrementAndGet();
+            record(players.get(index), statistics.get(index), (Long) rows.get(index).get(2));
+            return;
+        }
+
+        writtenRows.incrementAndGet();
+    }
+}
@@ -0,0 +1,94 @@
+package net.revtut.libraries.generic.database;
+
+import net.revtut.libraries.generic.database.pool.PoolSettings;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.Assert.*;
+
+/**
+ * Asynchronous Database Test.
+ * Results and failures of the statements run on the workers.
+ */
+public class AsyncDatabaseTest {
+
+    /**
+     * Maximum time (in seconds) to wait for a statement
+     */
+    private static final long TIMEOUT = 5;
+
+    /**
+     * Database where the statements are executed
+     */
+    private EmbeddedDatabase database;
+
+    /**
+     * Asynchronous database being tested
+     */
+    private AsyncDatabase asyncDatabase;
+
+    /**
+     * Create the database and the players table
+     * @throws SQLException if the database could not be created
+     * @throws ClassNotFoundException if the driver is missing
+     */
+    @Before
+    public void setUp() throws SQLException, ClassNotFoundException {
+        database = EmbeddedDatabase.create("async", EmbeddedDatabase.Mode.MYSQL);
+        database.setPoolSettings(new PoolSettings(1, 4));
+        asyncDatabase = new AsyncDatabase(database);
+        database.connect();
+
+        database.update("DROP TABLE IF EXISTS Players;", new ArrayList<>());
+        database.update("CREATE TABLE Players (Id INT PRIMARY KEY, Name VARCHAR(16), Kills INT);", new ArrayList<>());
+    }
+
+    /**
+     * Stop the workers and close the database
+     */
+    @After
+    public void tearDown() {
+        asyncDatabase.close(TimeUnit.SECONDS.toMillis(TIMEOUT));
+        database.close();
+    }
+
+    /**
+     * Successful statements complete with their result
+     * @throws Exception if a statement failed or timed out
+     */
+    @Test
+    public void results() throws Exception {
+        assertEquals(1, (int) asyncDatabase.executeUpdate("INSERT INTO Players (Id, Name, Kills) VALUES (?, ?, ?);", DatabaseTest.row(1, 3)).get(TIMEOUT, TimeUnit.SECONDS));
+        assertTrue(asyncDatabase.executeQuery("SELECT Kills FROM Players;", new ArrayList<>()).get(TIMEOUT, TimeUnit.SECONDS).next());
+        assertEquals(2, asyncDatabase.getSubmittedTasks());
+    }
+
+    /**
+     * Failed statements complete the futures exceptionally with the cause
+     * @throws InterruptedException if interrupted while waiting
+     * @throws TimeoutException if a statement timed out
+     */
+    @Test
+    public void failures() throws InterruptedException, TimeoutException {
+        try {
+            asyncDatabase.executeQuery("SELECT Missing FROM Players;", new ArrayList<>()).get(TIMEOUT, TimeUnit.SECONDS);
+            fail("Query of a missing column completed normally.");
+        } catch (final ExecutionException e) {
+            assertTrue(e.getCause() instanceof SQLException);
+        }
+
+        try {
+            asyncDatabase.executeUpdate("UPDATE Missing SET Kills = 1;", new ArrayList<>()).get(TIMEOUT, TimeUnit.SECONDS);
+            fail("Update of a missing table completed normally.");
+        } catch (final ExecutionException e) {
+            assertTrue(e.getCause() instanceof SQLException);
+        }
+    }
+}
@@ -0,0 +1,243 @@
+package net.revtut.libraries.generic.database;
+
+import net.revtut.libraries.generic.database.pool.PoolSettings;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import javax.sql.rowset.CachedRowSet;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Database Test.
+ * Smoke tests of the statements of the database layer on each emulated dialect, with and without a pool.
+ */
+@RunWith(Parameterized.class)
+public class DatabaseTest {
+
+    /**
+     * Columns of the players table
+     */
+    private static final List<String> COLUMNS = Arrays.asList("Id", "Name", "Kills");
+
+    /**
+     * Emulated dialect
+     */
+    private final EmbeddedDatabase.Mode mode;
+
+    /**
+     * True to use a connection pool, false to use a single connection
+     */
+    private final boolean pooled;
+
+    /**
+     * Database being tested
+     */
+    private EmbeddedDatabase database;
+
+    /**
+     * Constructor of DatabaseTest
+     * @param mode emulated dialect
+     * @param pooled true to use a connection pool
+     */
+    public DatabaseTest(final EmbeddedDatabase.Mode mode, final boolean pooled) {
+        this.mode = mode;
+        this.pooled = pooled;
+    }
+
+    /**
+     * Get the dialects and connection modes to be tested
+     * @return parameters of each run
+     */
+    @Parameterized.Parameters(name = "{0} pooled={1}")
+    public static Collection<Object[]> parameters() {
+        final List<Object[]> parameters = new ArrayList<>();
+        for(final EmbeddedDatabase.Mode mode : EmbeddedDatabase.Mode.values()) {
+            parameters.add(new Object[] { mode, false });
+            parameters.add(new Object[] { mode, true });
+        }
+        return parameters;
+    }
+
+    /**
+     * Create the database and the players table
+     * @throws SQLException if the database could not be created
+     * @throws ClassNotFoundException if the driver is missing
+     */
+    @Before
+    public void setUp() throws SQLException, ClassNotFoundException {
+        database = EmbeddedDatabase.create("database_" + mode + "_" + pooled, mode);
+        if(pooled)
+            database.setPoolSettings(new PoolSettings(1, 4));
+        database.connect();
+
+        database.update("DROP TABLE IF EXISTS Players;", new ArrayList<>());
+        database.update("CREATE TABLE Players (Id INT PRIMARY KEY, Name VARCHAR(16), Kills INT);", new ArrayList<>());
+    }
+
+    /**
+     * Close the database
+     */
+    @After
+    public void tearDown() {
+        database.close();
+    }
+
+    /**
+     * A inserted row is read back by its key
+     * @throws SQLException if the result could not be read
+     */
+    @Test
+    public void insertAndQueryByKey() throws SQLException {
+        DatabaseAPI.executeInsertion(database, "Players", COLUMNS, Collections.singletonList(row(1, 7)), 1, false);
+
+        final ResultSet resultSet = DatabaseAPI.executeQuery(database, "Players", Arrays.asList("Name", "Kills"), Collections.singletonList("Id"), Collections.<Object>singletonList(1));
+        assertTrue(resultSet.next());
+        assertEquals("Player1", resultSet.getString(1));
+        assertEquals(7, resultSet.getInt(2));
+        assertFalse(resultSet.next());
+    }
+
+    /**
+     * A batch split in chunks inserts every row
+     * @throws SQLException if the result could not be read
+     */
+    @Test
+    public void batchInsertion() throws SQLException {
+        final List<List<Object>> rows = new ArrayList<>();
+        for(int id = 0; id < 25; id++)
+            rows.add(row(id, id));
+
+        final int[] updateCounts = DatabaseAPI.executeInsertion(database, "Players", COLUMNS, rows, 10, true);
+        assertEquals(25, updateCounts.length);
+        for(final int updateCount : updateCounts)
+            assertTrue(updateCount == 1 || updateCount == Statement.SUCCESS_NO_INFO);
+        assertEquals(25, count());
+    }
+
+    /**
+     * A multi-row insertion uses the sql of the dialect
+     * @throws SQLException if the result could not be read
+     */
+    @Test
+    public void multiRowInsertion() throws SQLException {
+        assertEquals(3, DatabaseAPI.executeMultiRowInsertion(database, "Players", COLUMNS, Arrays.asList(row(1, 1), row(2, 2), row(3, 3)), 2));
+        assertEquals(3, count());
+    }
+
+    /**
+     * A upsert replaces the values of a existing key
+     * @throws SQLException if the result could not be read
+     */
+    @Test
+    public void upsert() throws SQLException {
+        // H2 does not accept the table alias of the PostgreSQL upsert
+        assumeTrue(mode == EmbeddedDatabase.Mode.MYSQL);
+
+        DatabaseAPI.executeInsertion(database, "Players", COLUMNS, Collections.singletonList(row(2, 2)), 1, false);
+        assertTrue(DatabaseAPI.executeUpsert(database, "Players", Collections.singletonList("Id"), Arrays.asList("Name", "Kills"), Arrays.<Object>asList(2, "Renamed", 9)) > 0);
+
+        final ResultSet resultSet = database.query("SELECT Name, Kills FROM Players WHERE Id = ?;", Collections.<Object>singletonList(2));
+        assertTrue(resultSet.next());
+        assertEquals("Renamed", resultSet.getString(1));
+        assertEquals(9, resultSet.getInt(2));
+        assertEquals(1, count());
+    }
+
+    /**
+     * A streamed query maps every row in order and gives its connection back
+     * @throws SQLException if the query could not be executed
+     */
+    @Test
+    public void streamingQuery() throws SQLException {
+        final List<List<Object>> rows = new ArrayList<>();
+        for(int id = 0; id < 100; id++)
+            rows.add(row(id, id));
+        DatabaseAPI.executeInsertion(database, "Players", COLUMNS, rows, 50, true);
+
+        try(Stream<Integer> ids = database.executeStream("SELECT Id FROM Players ORDER BY Id;", new ArrayList<>(), resultSet -> resultSet.getInt(1), 10)) {
+            final List<Integer> streamed = ids.collect(Collectors.toList());
+            assertEquals(100, streamed.size());
+            for(int id = 0; id < 100; id++)
+                assertEquals(id, (int) streamed.get(id));
+        }
+
+        // The connection is usable again once the stream is closed
+        assertEquals(100, count());
+        if(pooled)
+            assertEquals(0, database.getPool().getActiveConnections());
+    }
+
+    /**
+     * A query is copied in memory with a pool, and is the cursor of the driver on a uncached statement otherwise
+     * @throws SQLException if the query could not be executed
+     */
+    @Test
+    public void queryResult() throws SQLException {
+        DatabaseAPI.executeInsertion(database, "Players", COLUMNS, Arrays.asList(row(1, 1), row(2, 2)), 2, false);
+
+        final ResultSet first = database.query("SELECT Id FROM Players ORDER BY Id;", new ArrayList<>());
+        assertEquals(pooled, first instanceof CachedRowSet);
+
+        // Running the same query again does not close the first result
+        final ResultSet second = database.query("SELECT Id FROM Players ORDER BY Id;", new ArrayList<>());
+        assertTrue(first.next());
+        assertTrue(second.next());
+        assertEquals(1, first.getInt(1));
+        assertTrue(first.next());
+        assertEquals(2, first.getInt(1));
+        first.close();
+        second.close();
+    }
+
+    /**
+     * Failed statements return the failure values or throw on the throwing variants
+     */
+    @Test
+    public void failedStatements() {
+        assertNull(database.executeQuery("SELECT Missing FROM Players;", new ArrayList<>()));
+        assertEquals(-1, database.executeUpdate("UPDATE Missing SET Kills = 1;", new ArrayList<>()));
+
+        try {
+            database.query("SELECT Missing FROM Players;", new ArrayList<>());
+            fail("Query of a missing column did not throw.");
+        } catch (final SQLException ignored) {
+            // Expected
+        }
+    }
+
+    /**
+     * Count the rows of the players table
+     * @return number of rows
+     * @throws SQLException if the result could not be read
+     */
+    private int count() throws SQLException {
+        final ResultSet resultSet = database.query("SELECT COUNT(*) FROM Players;", new ArrayList<>());
+        assertTrue(resultSet.next());
+        return resultSet.getInt(1);
+    }
+
+    /**
+     * Build the values of a row
+     * @param id id of the row
+     * @param kills kills of the row
+     * @return values of the row
+     */
+    static List<Object> row(final int id, final int kills) {
+        return Arrays.asList(id, "Player" + id, kills);
+    }
+}
@@ -0,0 +1,154 @@
+package net.revtut.libraries.generic.database;
+
+import net.revtut.libraries.generic.database.types.MySQL;
+import net.revtut.libraries.generic.database.types.PostgreSQL;
+
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Embedded Database.
+ * In-process H2 database running in the compatibility mode of a dialect, so the database layer
+ * can be tested and measured without a live server. The sql that differs between dialects is generated by the
+ * emulated one. Each dialect has its own subclass, as the compiled statements are cached per database class.
+ */
+public abstract class EmbeddedDatabase extends Database {
+
+    /**
+     * Dialects that can be emulated
+     */
+    public enum Mode {
+        /**
+         * MySQL compatibility mode
+         */
+        MYSQL("MySQL", new MySQL("localhost", 3306, "embedded", "", "")),
+
+        /**
+         * PostgreSQL compatibility mode
+         */
+        POSTGRE("PostgreSQL", new PostgreSQL("localhost", 5432, "embedded", "", ""));
+
+        /**
+         * Name of the H2 compatibility mode
+         */
+        private final String name;
+
+        /**
+         * Database that generates the sql of the dialect, it is never connected
+         */
+        private final Database dialect;
+
+        /**
+         * Constructor of Mode
+         * @param name name of the H2 compatibility mode
+         * @param dialect database that generates the sql of the dialect
+         */
+        Mode(final String name, final Database dialect) {
+            this.name = name;
+            this.dialect = dialect;
+        }
+    }
+
+    /**
+     * Emulated dialect
+     */
+    private final Mode mode;
+
+    /**
+     * Constructor of EmbeddedDatabase
+     * @param name name of the in-memory database, databases with the same name share their data
+     * @param mode emulated dialect
+     */
+    protected EmbeddedDatabase(final String name, final Mode mode) {
+        super("org.h2.Driver", "jdbc:h2:mem:" + name + ";MODE=" + mode.name + ";DB_CLOSE_DELAY=-1", "sa", "");
+        this.mode = mode;
+    }
+
+    /**
+     * Create a embedded database
+     * @param name name of the in-memory database, databases with the same name share their data
+     * @param mode emulated dialect
+     * @return created embedded database
+     */
+    public static EmbeddedDatabase create(final String name, final Mode mode) {
+        switch (mode) {
+            case POSTGRE:
+                return new PostgreSQLDatabase(name);
+            default:
+                return new MySQLDatabase(name);
+        }
+    }
+
+    /**
+     * Get the emulated dialect
+     * @return emulated dialect
+     */
+    public Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * Build the sql of a insertion of several rows using the emulated dialect
+     * @param tableName name of the table to execute the insertion
+     * @param columns columns to set the values
+     * @param rows number of rows inserted by the statement
+     * @return sql of the insertion
+     */
+    @Override
+    public String insertionSql(final String tableName, final List<String> columns, final int rows) {
+        return mode.dialect.insertionSql(tableName, columns, rows);
+    }
+
+    /**
+     * Build the sql of a upsert using the emulated dialect
+     * @param tableName name of the table to execute the upsert
+     * @param keys columns of the unique key of the table
+     * @param columns columns to set the values
+     * @param additive true to add the values to the existing ones, false to replace them
+     * @return sql of the upsert
+     */
+    @Override
+    public String upsertSql(final String tableName, final List<String> keys, final List<String> columns, final boolean additive) {
+        return mode.dialect.upsertSql(tableName, keys, columns, additive);
+    }
+
+    /**
+     * Check if a transaction can be retried using the emulated dialect
+     * @param exception exception thrown by the transaction
+     * @return true if it can be retried, false otherwise
+     */
+    @Override
+    protected boolean isRetryable(final SQLException exception) {
+        return mode.dialect.isRetryable(exception);
+    }
+
+    /**
+     * Embedded MySQL Database.
+     * Embedded database in MySQL compatibility mode.
+     */
+    private static final class MySQLDatabase extends EmbeddedDatabase {
+
+        /**
+         * Constructor of MySQLDatabase
+         * @param name name of the in-memory database
+         */
+        private MySQLDatabase(final String name) {
+            super(name, Mode.MYSQL);
+        }
+    }
+
+    /**
+     * Embedded PostgreSQL Database.
+     * Embedded database in PostgreSQL compatibility mode.
+     */
+    private static final class PostgreSQLDatabase extends EmbeddedDatabase {
+
+        /**
+         * Constructor of PostgreSQLDatabase
+         * @param name name of the in-memory database
+         */
+        private PostgreSQLDatabase(final String name) {
+            super(name, Mode.POSTGRE);
+        }
+    }
+}
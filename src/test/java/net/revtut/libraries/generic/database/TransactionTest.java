@@ -0,0 +1,157 @@
+package net.revtut.libraries.generic.database;
+
+import net.revtut.libraries.generic.database.pool.PoolSettings;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Transaction Test.
+ * Commits, rollbacks and savepoints of the unit of work transactions, with and without a pool.
+ */
+@RunWith(Parameterized.class)
+public class TransactionTest {
+
+    /**
+     * Insertion of a player
+     */
+    private static final String INSERT = "INSERT INTO Players (Id, Name, Kills) VALUES (?, ?, ?);";
+
+    /**
+     * True to use a connection pool, false to use a single connection
+     */
+    private final boolean pooled;
+
+    /**
+     * Database being tested
+     */
+    private EmbeddedDatabase database;
+
+    /**
+     * Constructor of TransactionTest
+     * @param pooled true to use a connection pool
+     */
+    public TransactionTest(final boolean pooled) {
+        this.pooled = pooled;
+    }
+
+    /**
+     * Get the connection modes to be tested
+     * @return parameters of each run
+     */
+    @Parameterized.Parameters(name = "pooled={0}")
+    public static Collection<Object[]> parameters() {
+        return Arrays.asList(new Object[] { false }, new Object[] { true });
+    }
+
+    /**
+     * Create the database and the players table
+     * @throws SQLException if the database could not be created
+     * @throws ClassNotFoundException if the driver is missing
+     */
+    @Before
+    public void setUp() throws SQLException, ClassNotFoundException {
+        database = EmbeddedDatabase.create("transaction_" + pooled, EmbeddedDatabase.Mode.MYSQL);
+        if(pooled)
+            database.setPoolSettings(new PoolSettings(1, 4));
+        database.connect();
+
+        database.update("DROP TABLE IF EXISTS Players;", new ArrayList<>());
+        database.update("CREATE TABLE Players (Id INT PRIMARY KEY, Name VARCHAR(16), Kills INT);", new ArrayList<>());
+    }
+
+    /**
+     * Close the database
+     */
+    @After
+    public void tearDown() {
+        database.close();
+    }
+
+    /**
+     * The statements of a successful transaction are committed together
+     * @throws SQLException if the transaction failed
+     */
+    @Test
+    public void commit() throws SQLException {
+        final int inserted = database.transaction(transaction -> transaction.executeUpdate(INSERT, DatabaseTest.row(1, 0))
+                + transaction.executeUpdate(INSERT, DatabaseTest.row(2, 0)));
+
+        assertEquals(2, inserted);
+        assertEquals(2, count());
+        assertEquals(1, database.getTransactionCommits());
+    }
+
+    /**
+     * A failed transaction rolls back every statement, including the plain ones of the same thread
+     * @throws SQLException if the table could not be read
+     */
+    @Test
+    public void rollbackIncludesPlainStatements() throws SQLException {
+        try {
+            database.transaction(transaction -> {
+                transaction.executeUpdate(INSERT, DatabaseTest.row(1, 0));
+                assertEquals(1, database.executeUpdate(INSERT, DatabaseTest.row(2, 0)));
+                assertEquals(1, database.executeBatch(INSERT, Arrays.asList(DatabaseTest.row(3, 0), DatabaseTest.row(4, 0)), 1, true)[1]);
+                throw new IllegalStateException("Rollback");
+            });
+            fail("Transaction did not rethrow the failure.");
+        } catch (final IllegalStateException ignored) {
+            // Expected
+        }
+
+        assertEquals(0, count());
+        assertEquals(1, database.getTransactionRollbacks());
+        if(pooled)
+            assertEquals(0, database.getPool().getActiveConnections());
+    }
+
+    /**
+     * A failed savepoint only rolls back its own statements
+     * @throws SQLException if the transaction failed
+     */
+    @Test
+    public void savepoint() throws SQLException {
+        database.transaction(transaction -> {
+            transaction.executeUpdate(INSERT, DatabaseTest.row(1, 0));
+            try {
+                database.transaction(nested -> {
+                    nested.executeUpdate(INSERT, DatabaseTest.row(2, 0));
+                    return nested.executeUpdate(INSERT, DatabaseTest.row(1, 0));
+                });
+                fail("Duplicated key did not fail.");
+            } catch (final SQLException ignored) {
+                // Expected
+            }
+            return transaction.executeUpdate(INSERT, DatabaseTest.row(3, 0));
+        });
+
+        final ResultSet resultSet = database.query("SELECT Id FROM Players ORDER BY Id;", new ArrayList<>());
+        final List<Integer> ids = new ArrayList<>();
+        while(resultSet.next())
+            ids.add(resultSet.getInt(1));
+        assertEquals(Arrays.asList(1, 3), ids);
+    }
+
+    /**
+     * Count the rows of the players table
+     * @return number of rows
+     * @throws SQLException if the result could not be read
+     */
+    private int count() throws SQLException {
+        final ResultSet resultSet = database.query("SELECT COUNT(*) FROM Players;", new ArrayList<>());
+        assertTrue(resultSet.next());
+        return resultSet.getInt(1);
+    }
+}
@@ -0,0 +1,125 @@
+package net.revtut.libraries.generic.database.pool;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+
+import static org.junit.Assert.*;
+
+/**
+ * Connection Pool Test.
+ * Borrowing, releasing and bounds of the connection pool on a embedded database.
+ */
+public class ConnectionPoolTest {
+
+    /**
+     * URL of the embedded database
+     */
+    private static final String URL = "jdbc:h2:mem:pool;DB_CLOSE_DELAY=-1";
+
+    /**
+     * Pool being tested
+     */
+    private ConnectionPool pool;
+
+    /**
+     * Create a pool of one to two connections
+     * @throws SQLException if the pool could not be filled
+     */
+    @Before
+    public void setUp() throws SQLException {
+        final PoolSettings settings = new PoolSettings(1, 2);
+        settings.setBorrowTimeout(100);
+        pool = new ConnectionPool(URL, "sa", "", settings, 8);
+    }
+
+    /**
+     * Close the pool
+     */
+    @After
+    public void tearDown() {
+        pool.close();
+    }
+
+    /**
+     * The pool is filled up to its minimum size
+     */
+    @Test
+    public void fill() {
+        assertEquals(1, pool.getTotalConnections());
+        assertEquals(1, pool.getIdleConnections());
+        assertEquals(0, pool.getActiveConnections());
+    }
+
+    /**
+     * A released connection is borrowed again instead of opening a new one
+     * @throws SQLException if a connection could not be borrowed
+     */
+    @Test
+    public void reuse() throws SQLException {
+        final PooledConnection connection = pool.borrow();
+        assertEquals(1, pool.getActiveConnections());
+        pool.release(connection);
+
+        assertSame(connection, pool.borrow());
+        assertEquals(1, pool.getCreatedConnections());
+        assertEquals(2, pool.getBorrowCount());
+    }
+
+    /**
+     * Borrowing from a exhausted pool times out
+     * @throws SQLException if a connection could not be borrowed
+     */
+    @Test
+    public void borrowTimeout() throws SQLException {
+        pool.borrow();
+        pool.borrow();
+        assertEquals(2, pool.getTotalConnections());
+
+        try {
+            pool.borrow();
+            fail("Borrow from a exhausted pool did not time out.");
+        } catch (final SQLTimeoutException ignored) {
+            // Expected
+        }
+        assertEquals(1, pool.getBorrowTimeouts());
+    }
+
+    /**
+     * A closed connection is dropped on release and its slot is freed
+     * @throws SQLException if a connection could not be borrowed
+     */
+    @Test
+    public void releaseClosed() throws SQLException {
+        final PooledConnection connection = pool.borrow();
+        connection.close();
+        pool.release(connection);
+
+        assertEquals(0, pool.getTotalConnections());
+        assertEquals(1, pool.getDestroyedConnections());
+    }
+
+    /**
+     * Closing the pool closes the idle connections and rejects new borrows
+     * @throws SQLException if a connection could not be borrowed
+     */
+    @Test
+    public void close() throws SQLException {
+        final PooledConnection connection = pool.borrow();
+        pool.release(connection);
+        pool.close();
+
+        assertTrue(pool.isClosed());
+        assertEquals(0, pool.getTotalConnections());
+        assertTrue(connection.getConnection().isClosed());
+        try {
+            pool.borrow();
+            fail("Borrow from a closed pool did not fail.");
+        } catch (final SQLException ignored) {
+            // Expected
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package net.revtut.libraries.minecraft.bukkit.games;
+
+import net.revtut.libraries.minecraft.bukkit.games.arena.types.ArenaType;
+import org.bukkit.World;
+import org.bukkit.plugin.Plugin;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.Assert.*;
+
+/**
+ * Game Controller Test.
+ * Creation of arenas on demand while their worlds are still being cloned.
+ */
+public class GameControllerTest {
+
+    /**
+     * Controller whose worlds are never done cloning
+     */
+    private GameController controller;
+
+    /**
+     * Create a controller whose clones stay pending
+     */
+    @Before
+    public void setUp() {
+        final Plugin plugin = (Plugin) Proxy.newProxyInstance(Plugin.class.getClassLoader(), new Class<?>[] { Plugin.class },
+                (proxy, method, args) -> "getName".equals(method.getName()) ? "Test" : null);
+
+        controller = new GameController(plugin, new File("worlds")) {
+            @Override
+            public CompletableFuture<World> loadRandomWorldAsync(final String prefix) {
+                return new CompletableFuture<>();
+            }
+        };
+    }
+
+    /**
+     * A controller without arenas needs them, the pending clones count as available
+     */
+    @Test
+    public void needsArena() {
+        assertTrue(controller.needsArena());
+
+        controller.createArena(ArenaType.SOLO);
+        assertTrue(controller.needsArena());
+
+        controller.createArena(ArenaType.SOLO);
+        assertFalse(controller.needsArena());
+    }
+
+    /**
+     * Repeated joins while the worlds are being cloned do not start a clone each
+     */
+    @Test
+    public void joinsDuringPendingLoad() {
+        for(int join = 0; join < 20; join++) {
+            if(controller.needsArena())
+                controller.createArena(ArenaType.SOLO);
+        }
+
+        assertEquals(2, controller.getArenas().size());
+        assertEquals(2, controller.getLoadingArenasCount());
+        assertEquals(0, controller.getAvailableArenasCount());
+    }
+}
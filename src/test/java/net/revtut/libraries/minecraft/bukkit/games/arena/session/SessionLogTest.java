@@ -0,0 +1,194 @@
+package net.revtut.libraries.minecraft.bukkit.games.arena.session;
+
+import net.revtut.libraries.generic.structures.Pair;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Session Log Test.
+ * Ring wraparound, buffer compaction, spilling to the file and streaming of the session log.
+ */
+public class SessionLogTest {
+
+    /**
+     * Folder of the log files
+     */
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * The ring keeps the newest entries in order and drops the oldest ones without a file
+     */
+    @Test
+    public void wraparound() {
+        final SessionLog log = new SessionLog(3, null);
+        for(int entry = 0; entry < 8; entry++)
+            log.add("Entry " + entry, entry);
+
+        assertEquals(3, log.size());
+        assertEquals(8, log.getAdded());
+        assertEquals(5, log.getDropped());
+        for(int index = 0; index < 3; index++) {
+            assertEquals("Entry " + (index + 5), log.getMessage(index));
+            assertEquals(index + 5, log.getTime(index));
+        }
+
+        final List<Pair<String, Date>> entries = log.getEntries();
+        assertEquals(3, entries.size());
+        assertEquals("Entry 5", entries.get(0).getFirst());
+        assertEquals(new Date(7), entries.get(2).getSecond());
+
+        try {
+            log.getMessage(3);
+            fail("Entry out of the ring was read.");
+        } catch (final IndexOutOfBoundsException ignored) {
+            // Expected
+        }
+    }
+
+    /**
+     * The messages are kept intact when the buffer is compacted and when it grows
+     */
+    @Test
+    public void compaction() {
+        final SessionLog log = new SessionLog(4, null);
+        final List<String> messages = new ArrayList<>();
+        for(int entry = 0; entry < 200; entry++) {
+            // Mostly short messages compacting the buffer in place, with a few longer than the whole buffer
+            final String message = entry % 50 == 49 ? repeat('x', 100 + entry) : "M" + entry;
+            messages.add(message);
+            log.add(message, entry);
+
+            for(int index = 0; index < log.size(); index++)
+                assertEquals(messages.get(entry - log.size() + 1 + index), log.getMessage(index));
+        }
+    }
+
+    /**
+     * The entries spilled to the file are streamed before the ones in memory, each one once
+     * @throws IOException if the log could not be streamed
+     */
+    @Test
+    public void spillThenStream() throws IOException {
+        final File file = folder.newFile("events.log");
+        final SessionLog log = new SessionLog(3, file);
+        for(int entry = 0; entry < 10; entry++)
+            log.add(entry == 4 ? "Line\nbreak \\ slash" : "Entry " + entry, entry);
+
+        assertEquals(7, log.getWritten());
+        assertEquals(0, log.getDropped());
+        assertEquals(expected(0, 10), stream(log));
+
+        // Streaming writes every new entry, they are still streamed once
+        log.flush();
+        assertEquals(10, log.getWritten());
+        log.add("Entry 10", 10);
+        log.add("Entry 11", 11);
+        assertEquals(expected(0, 12), stream(log));
+
+        // Once closed the new entries are only kept in memory
+        log.close();
+        log.add("Entry 12", 12);
+        assertEquals(expected(0, 13), stream(log));
+    }
+
+    /**
+     * A failed write in the middle of a spill closes the file, the entries on it are kept and the later ones dropped
+     * @throws IOException if the log could not be streamed
+     */
+    @Test
+    public void failedSpill() throws IOException {
+        final File file = folder.newFile("chat.log");
+        final SessionLog log = new SessionLog(4, file, new FailingWriter(file, 2));
+        for(int entry = 0; entry < 10; entry++)
+            log.add("Entry " + entry, entry);
+
+        assertEquals(2, log.getWritten());
+        assertEquals(4, log.getDropped());
+        assertEquals(4, log.size());
+
+        final List<String> lines = new ArrayList<>(expected(0, 2));
+        lines.addAll(expected(6, 10));
+        assertEquals(lines, stream(log));
+    }
+
+    /**
+     * Stream a log
+     * @param log log to be streamed
+     * @return lines of the log
+     * @throws IOException if the log could not be streamed
+     */
+    private static List<String> stream(final SessionLog log) throws IOException {
+        final StringWriter out = new StringWriter();
+        log.writeTo(out);
+        return Arrays.asList(out.toString().split("\n"));
+    }
+
+    /**
+     * Build the lines of a range of entries added by the tests
+     * @param start first entry, inclusive
+     * @param end last entry, exclusive
+     * @return lines of the entries
+     */
+    private static List<String> expected(final int start, final int end) {
+        final List<String> lines = new ArrayList<>();
+        for(int entry = start; entry < end; entry++)
+            lines.add(entry + "\t" + (entry == 4 ? "Line\\nbreak \\\\ slash" : "Entry " + entry));
+        return lines;
+    }
+
+    /**
+     * Build a message repeating a character
+     * @param character character to be repeated
+     * @param count length of the message
+     * @return message
+     */
+    private static String repeat(final char character, final int count) {
+        final char[] message = new char[count];
+        Arrays.fill(message, character);
+        return new String(message);
+    }
+
+    /**
+     * Writer of a file that fails after a number of writes
+     */
+    private static class FailingWriter extends FileWriter {
+
+        /**
+         * Number of writes left before failing
+         */
+        private int writes;
+
+        /**
+         * Constructor of FailingWriter
+         * @param file file to be written
+         * @param writes number of writes before failing
+         * @throws IOException if the file could not be opened
+         */
+        FailingWriter(final File file, final int writes) throws IOException {
+            super(file);
+            this.writes = writes;
+        }
+
+        @Override
+        public void write(final String text) throws IOException {
+            if(writes-- <= 0)
+                throw new IOException("Disk full");
+
+            super.write(text);
+            flush();
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package net.revtut.libraries.minecraft.bukkit.games.arena.session;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * Timing Wheel Test.
+ * Expiry, cascade, overflow and cancellation of the timing wheel on a small wheel of 8 slots by 3 levels,
+ * whose span is 512 ticks of 50 milliseconds.
+ */
+public class TimingWheelTest {
+
+    /**
+     * Duration of a tick in milliseconds
+     */
+    private static final long TICK = 50;
+
+    /**
+     * Time the wheels start at
+     */
+    private static final long START = 1000000;
+
+    /**
+     * A deadline on the lowest level is due on its tick and not before
+     */
+    @Test
+    public void expiry() {
+        final TimingWheel wheel = new TimingWheel(TICK, 8, 3, START);
+        final AtomicInteger runs = new AtomicInteger();
+        wheel.schedule(START + 3 * TICK, runs::incrementAndGet);
+
+        assertTrue(wheel.advance(START + 3 * TICK - 1).isEmpty());
+        final List<TimingWheel.Timeout> due = wheel.advance(START + 3 * TICK);
+        assertEquals(1, due.size());
+        due.get(0).run();
+        assertEquals(1, runs.get());
+        assertEquals(0, wheel.size());
+    }
+
+    /**
+     * Deadlines on the upper levels cascade down and are due on their exact tick
+     */
+    @Test
+    public void cascade() {
+        final TimingWheel wheel = new TimingWheel(TICK, 8, 3, START);
+        final long[] deadlines = { START + 9 * TICK, START + 62 * TICK + 20, START + 64 * TICK, START + 300 * TICK };
+        for(final long deadline : deadlines)
+            wheel.schedule(deadline, () -> {});
+
+        for(final long deadline : deadlines) {
+            final long tick = (deadline + TICK - 1) / TICK * TICK;
+            assertTrue(wheel.advance(tick - TICK).stream().noneMatch(timeout -> timeout.getDeadline() == deadline));
+
+            final List<TimingWheel.Timeout> due = wheel.advance(tick);
+            assertEquals(1, due.size());
+            assertEquals(deadline, due.get(0).getDeadline());
+        }
+        assertEquals(0, wheel.size());
+    }
+
+    /**
+     * A deadline beyond the span of the wheel goes around until it is due
+     */
+    @Test
+    public void overflow() {
+        final TimingWheel wheel = new TimingWheel(TICK, 8, 3, START);
+        final long deadline = START + 2000 * TICK;
+        wheel.schedule(deadline, () -> {});
+
+        assertTrue(wheel.advance(deadline - TICK).isEmpty());
+        assertEquals(1, wheel.size());
+        assertEquals(1, wheel.advance(deadline).size());
+    }
+
+    /**
+     * A deadline already passed is due on the next tick
+     */
+    @Test
+    public void pastDeadline() {
+        final TimingWheel wheel = new TimingWheel(TICK, 8, 3, START);
+        wheel.schedule(START - 10 * TICK, () -> {});
+
+        assertTrue(wheel.advance(START).isEmpty());
+        assertEquals(1, wheel.advance(START + TICK).size());
+    }
+
+    /**
+     * A cancelled timeout is never due and its task is not run
+     */
+    @Test
+    public void cancel() {
+        final TimingWheel wheel = new TimingWheel(TICK, 8, 3, START);
+        final AtomicInteger runs = new AtomicInteger();
+        final TimingWheel.Timeout cancelled = wheel.schedule(START + 100 * TICK, runs::incrementAndGet);
+        final TimingWheel.Timeout due = wheel.schedule(START + 5 * TICK, runs::incrementAndGet);
+
+        cancelled.cancel();
+        assertTrue(cancelled.isCancelled());
+        assertEquals(1, wheel.size());
+        assertTrue(wheel.advance(START + 200 * TICK).contains(due));
+
+        // Cancelling a timeout that is already due still skips its task
+        due.cancel();
+        due.run();
+        assertEquals(0, runs.get());
+        assertEquals(0, wheel.size());
+    }
+
+    /**
+     * Random deadlines, cancellations and jumps of time are never due early nor late
+     */
+    @Test
+    public void randomDeadlines() {
+        final Random random = new Random(1);
+        long now = START;
+        final TimingWheel wheel = new TimingWheel(TICK, 8, 3, now);
+        final Map<TimingWheel.Timeout, Long> pending = new HashMap<>();
+        final Map<TimingWheel.Timeout, Long> scheduledTicks = new HashMap<>();
+
+        for(int step = 0; step < 5000; step++) {
+            for(int count = 0; count < 3; count++) {
+                final long deadline = now - 100 + (random.nextInt(10) == 0 ? random.nextInt(2000000) : random.nextInt(30000));
+                final TimingWheel.Timeout timeout = wheel.schedule(deadline, () -> {});
+                pending.put(timeout, deadline);
+                scheduledTicks.put(timeout, now / TICK);
+            }
+            if(random.nextInt(5) == 0) {
+                final TimingWheel.Timeout timeout = pending.keySet().iterator().next();
+                timeout.cancel();
+                pending.remove(timeout);
+            }
+
+            now += random.nextInt(10) == 0 ? random.nextInt(3000) : random.nextInt(120);
+            for(final TimingWheel.Timeout timeout : wheel.advance(now)) {
+                final Long deadline = pending.remove(timeout);
+                assertNotNull("Timeout due twice or after being cancelled.", deadline);
+                assertTrue("Timeout due before its deadline.", deadline <= now);
+            }
+
+            // Every deadline whose tick passed is due, unless it was scheduled on the current tick
+            for(final Map.Entry<TimingWheel.Timeout, Long> entry : pending.entrySet()) {
+                final long deadlineTick = (entry.getValue() + TICK - 1) / TICK;
+                assertFalse("Timeout not due after its deadline.", deadlineTick <= now / TICK && scheduledTicks.get(entry.getKey()) < now / TICK);
+            }
+            assertEquals(pending.size(), wheel.size());
+        }
+    }
+}
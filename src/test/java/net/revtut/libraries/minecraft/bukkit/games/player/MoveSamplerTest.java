@@ -0,0 +1,96 @@
+package net.revtut.libraries.minecraft.bukkit.games.player;
+
+import org.bukkit.Location;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.UUID;
+
+import static org.junit.Assert.*;
+
+/**
+ * Move Sampler Test.
+ * Emissions of the sampled mode and where the samples are measured from.
+ */
+public class MoveSamplerTest {
+
+    /**
+     * Uuid of the moving player
+     */
+    private static final UUID PLAYER = UUID.randomUUID();
+
+    /**
+     * Sampler being tested
+     */
+    private MoveSampler sampler;
+
+    /**
+     * Create a sampler on the sampled mode
+     */
+    @Before
+    public void setUp() {
+        sampler = new MoveSampler();
+        sampler.setMode(MoveMode.SAMPLED);
+    }
+
+    /**
+     * Movements inside a block are coalesced until the block changes
+     */
+    @Test
+    public void coalesce() {
+        assertNull(sampler.sample(PLAYER, at(0.1, 64, 0.1), at(0.4, 64, 0.1)));
+        assertNull(sampler.sample(PLAYER, at(0.4, 64, 0.1), at(0.7, 64, 0.1)));
+
+        final MoveSample sample = sampler.sample(PLAYER, at(0.7, 64, 0.1), at(1.1, 65.2, 0.1));
+        assertNotNull(sample);
+        assertEquals(1.2, sample.getHeight(), 1e-9);
+        assertEquals(2, sampler.getCoalesced());
+        assertEquals(1, sampler.getEmitted());
+    }
+
+    /**
+     * The first movement after a teleport is measured from the destination, not from where the player was
+     */
+    @Test
+    public void teleport() {
+        assertNull(sampler.sample(PLAYER, at(0.1, 64, 0.1), at(0.4, 64, 0.1)));
+
+        // Teleported to the lobby, there is no move event
+        sampler.remove(PLAYER);
+
+        final MoveSample sample = sampler.sample(PLAYER, at(100.5, 120, 100.5), at(101.1, 120, 100.5));
+        assertNotNull(sample);
+        assertEquals(0, sample.getHeight(), 0);
+        assertEquals(0.6, sample.getDistance(), 1e-9);
+    }
+
+    /**
+     * A rejected movement is not counted, the next sample is measured from where the player was kept
+     */
+    @Test
+    public void reject() {
+        assertNull(sampler.sample(PLAYER, at(0.1, 64, 0.1), at(0.4, 64, 0.1)));
+
+        // Jump to a higher block cancelled, the player is sent back
+        final MoveSample rejected = sampler.sample(PLAYER, at(0.4, 64, 0.1), at(0.4, 66.5, 0.1));
+        assertNotNull(rejected);
+        assertEquals(2.5, rejected.getHeight(), 1e-9);
+        sampler.reject(PLAYER);
+
+        final MoveSample sample = sampler.sample(PLAYER, at(0.4, 64, 0.1), at(1.2, 64, 0.1));
+        assertNotNull(sample);
+        assertEquals(0, sample.getHeight(), 0);
+        assertEquals(1.1, sample.getDistance(), 1e-9);
+    }
+
+    /**
+     * Build a location without a world
+     * @param x x coordinate
+     * @param y y coordinate
+     * @param z z coordinate
+     * @return location
+     */
+    private static Location at(final double x, final double y, final double z) {
+        return new Location(null, x, y, z);
+    }
+}